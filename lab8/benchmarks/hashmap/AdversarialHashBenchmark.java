@@ -0,0 +1,73 @@
+package hashmap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-put cost of filling a MyHashMap with KEYS keys, placed by their
+ * hashCode() or by a SeededHash. "colliding" keys are strings crafted to
+ * share one String.hashCode(), as an attacker would send them; "random"
+ * keys are random strings of the same length, for the ordinary case.
+ *
+ * @author Jiayi Mao
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdversarialHashBenchmark {
+
+    private static final int BLOCKS = 12;
+    private static final int KEYS = 1 << BLOCKS;
+
+    @Param({"colliding", "random"})
+    public String keySet;
+
+    @Param({"hashCode", "seeded"})
+    public String hashing;
+
+    private String[] keys;
+
+    @Setup
+    public void createKeys() {
+        if (keySet.equals("colliding")) {
+            keys = CollidingKeysBenchmark.collidingStrings(BLOCKS).toArray(new String[0]);
+            return;
+        }
+        keys = new String[KEYS];
+        Random random = new Random(61);
+        char[] chars = new char[2 * BLOCKS];
+        for (int i = 0; i < KEYS; i++) {
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = (char) ('a' + random.nextInt(26));
+            }
+            keys[i] = new String(chars);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public MyHashMap<String, Integer> fill() {
+        SeededHash hash = hashing.equals("seeded") ? SeededHash.random() : null;
+        MyHashMap<String, Integer> map = new MyHashMap<>(16, 0.75, false, hash);
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], i);
+        }
+        return map;
+    }
+}
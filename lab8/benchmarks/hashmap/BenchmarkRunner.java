@@ -0,0 +1,33 @@
+package hashmap;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the map benchmarks with the GC profiler, which adds the allocation
+ * rate and the bytes allocated per operation to every result, and exports
+ * the results as JSON.
+ * Usage: java -cp target/benchmarks.jar hashmap.BenchmarkRunner [REGEX] [OUTPUT]
+ * where REGEX selects the benchmarks to run (default: Map61BBenchmark and
+ * ULLMapBenchmark) and
+ * OUTPUT is the JSON report (default: jmh-result.json).
+ *
+ * @author Jiayi Mao
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : "hashmap\\.(Map61B|ULLMap)Benchmark.*";
+        String output = args.length > 1 ? args[1] : "jmh-result.json";
+        Options options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(output)
+                .build();
+        new Runner(options).run();
+    }
+}
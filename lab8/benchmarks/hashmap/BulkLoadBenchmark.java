@@ -0,0 +1,109 @@
+package hashmap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading a snapshot of SIZE entries with random Long keys into an empty
+ * map, by calling put() for each entry or putAll() once for all of them,
+ * and reading it back with get() or getAll(). putAll() grows the table
+ * once instead of every time the load factor is crossed, and visits the
+ * table in order.
+ * For a 10M-entry snapshot, run with -p size=10000000.
+ *
+ * @author Jiayi Mao
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class BulkLoadBenchmark {
+
+    @Param({"MyHashMap", "MyHashMapAdaptiveBuckets", "MyProbingHashMap"})
+    public String implementation;
+
+    @Param({"1000000"})
+    public int size;
+
+    private List<Long> keys;
+
+    /** The snapshot loaded into a map, kept apart so the put benchmarks do not hold it. */
+    @State(Scope.Thread)
+    public static class Loaded {
+        private Map61B<Long, Long> full;
+
+        @Setup
+        public void load(BulkLoadBenchmark snapshot) {
+            full = snapshot.create();
+            full.putAll(snapshot.keys, snapshot.keys);
+        }
+    }
+
+    @Setup
+    public void createSnapshot() {
+        SplittableRandom random = new SplittableRandom(61);
+        keys = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            keys.add(random.nextLong());
+        }
+    }
+
+    @Benchmark
+    public Map61B<Long, Long> putLoop() {
+        Map61B<Long, Long> map = create();
+        for (Long key : keys) {
+            map.put(key, key);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public Map61B<Long, Long> putAll() {
+        Map61B<Long, Long> map = create();
+        map.putAll(keys, keys);
+        return map;
+    }
+
+    @Benchmark
+    public List<Long> getLoop(Loaded loaded) {
+        List<Long> values = new ArrayList<>(size);
+        for (Long key : keys) {
+            values.add(loaded.full.get(key));
+        }
+        return values;
+    }
+
+    @Benchmark
+    public List<Long> getAll(Loaded loaded) {
+        return loaded.full.getAll(keys);
+    }
+
+    private Map61B<Long, Long> create() {
+        switch (implementation) {
+            case "MyHashMap":
+                return new MyHashMap<>();
+            case "MyHashMapAdaptiveBuckets":
+                return new MyHashMapAdaptiveBuckets<>();
+            case "MyProbingHashMap":
+                return new MyProbingHashMap<>();
+            default:
+                throw new IllegalArgumentException("no map named " + implementation);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package hashmap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-lookup cost when all 2^BLOCKS keys share one hash code, so they all
+ * land in a single bucket. Linked-list buckets, and tree-set buckets,
+ * which MyHashMap can only scan, take time linear in the bucket length;
+ * adaptive buckets, like java.util.HashMap's bins, take logarithmic time.
+ *
+ * @author Jiayi Mao
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollidingKeysBenchmark {
+
+    @Param({"LLBuckets", "TSBuckets", "AdaptiveBuckets", "HashMap"})
+    public String implementation;
+
+    @Param({"6", "10", "12"})
+    public int blocks;
+
+    private Map61B<String, Integer> map;
+    private String[] keys;
+    private int next;
+
+    @Setup
+    public void fillMap() {
+        switch (implementation) {
+            case "LLBuckets":
+                map = new MyHashMapLLBuckets<>();
+                break;
+            case "TSBuckets":
+                map = new MyHashMapTSBuckets<>();
+                break;
+            case "AdaptiveBuckets":
+                map = new MyHashMapAdaptiveBuckets<>();
+                break;
+            default:
+                map = new JavaMap61B<>(new HashMap<>());
+        }
+        keys = collidingStrings(blocks).toArray(new String[0]);
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], i);
+        }
+    }
+
+    @Benchmark
+    public Integer get() {
+        next = (next + 1) & (keys.length - 1);
+        return map.get(keys[next]);
+    }
+
+    /** Returns the 2^N strings of N blocks each "Aa" or "BB", which all hash alike. */
+    static List<String> collidingStrings(int n) {
+        List<String> result = new ArrayList<>();
+        result.add("");
+        for (int i = 0; i < n; i++) {
+            List<String> longer = new ArrayList<>();
+            for (String s : result) {
+                longer.add(s + "Aa");
+                longer.add(s + "BB");
+            }
+            result = longer;
+        }
+        return result;
+    }
+}
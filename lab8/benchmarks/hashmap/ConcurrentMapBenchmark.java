@@ -0,0 +1,77 @@
+package hashmap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of MyConcurrentHashMap against java.util.concurrent's
+ * ConcurrentHashMap, with every thread running the same mix of gets and
+ * puts over SIZE keys, READPERCENT of them gets. The map is shared by all
+ * threads; run with -t 1, 2, 4, ... to see how throughput scales with them.
+ *
+ * @author Jiayi Mao
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ConcurrentMapBenchmark {
+
+    @Param({"MyConcurrentHashMap", "ConcurrentHashMap"})
+    public String implementation;
+
+    @Param({"100", "90", "50"})
+    public int readPercent;
+
+    @Param({"1000000"})
+    public int size;
+
+    private Map61B<Integer, Integer> map;
+    private Integer[] keys;
+
+    @Setup
+    public void fillMap() {
+        map = implementation.equals("ConcurrentHashMap")
+                ? new JavaMap61B<>(new ConcurrentHashMap<>())
+                : new MyConcurrentHashMap<>();
+        keys = new Integer[size];
+        SplittableRandom random = new SplittableRandom(61);
+        for (int i = 0; i < size; i++) {
+            keys[i] = random.nextInt();
+            map.put(keys[i], i);
+        }
+    }
+
+    /** The random choices of one thread. */
+    @State(Scope.Thread)
+    public static class ThreadRandom {
+        final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Benchmark
+    public Integer mixed(ThreadRandom state) {
+        Integer key = keys[state.random.nextInt(keys.length)];
+        if (state.random.nextInt(100) < readPercent) {
+            return map.get(key);
+        }
+        map.put(key, key);
+        return key;
+    }
+}
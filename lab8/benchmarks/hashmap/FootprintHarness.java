@@ -0,0 +1,106 @@
+package hashmap;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import speed.StringUtils;
+
+/**
+ * Measures how much heap each map in Map61BBenchmark and ULLMapBenchmark
+ * takes, where the benchmarks only measure time. Every map is filled with SIZE random
+ * strings of length 10 mapped to boxed Integers, at every load factor in
+ * LOAD_FACTORS that it takes, and JOL then walks everything reachable
+ * from it. Two numbers are printed per map:
+ *  retained    bytes reachable from the map, keys and values included
+ *  bytes/entry bytes of the map itself per entry, that is, retained
+ *              less the keys and values, divided by SIZE
+ * The second is what choosing one map or bucket type over another costs.
+ *
+ * ULLMap and TreeMap have no load factor, and are measured once per size;
+ * ULLMap only up to ULLMapBenchmark.MAX_SIZE.
+ * MyProbingHashMap needs a load factor below 1.
+ * Usage: java -Djdk.attach.allowAttachSelf -cp target/benchmarks.jar
+ *            hashmap.FootprintHarness [SIZE...]
+ * where the default sizes are 1000, 100000 and 1000000.
+ *
+ * @author Jiayi Mao
+ */
+public class FootprintHarness {
+    private static final int[] DEFAULT_SIZES = {1000, 100000, 1000000};
+    private static final double[] LOAD_FACTORS = {0.5, 0.75, 1.0, 2.0};
+    private static final Set<String> NO_LOAD_FACTOR = Set.of("ULLMap", "TreeMap");
+
+    public static void main(String[] args) throws NoSuchFieldException {
+        // the comparators of TreeSet and PriorityQueue buckets are lambdas,
+        // whose fields JOL can only find this way
+        System.setProperty("jol.magicFieldOffset", "true");
+        int[] sizes = DEFAULT_SIZES;
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+        List<String> names = new ArrayList<>();
+        names.add("ULLMap");
+        names.addAll(Arrays.asList(Map61BBenchmark.class.getField("implementation")
+                .getAnnotation(Param.class).value()));
+
+        System.out.printf("%-26s %6s %9s %14s %12s%n",
+                "implementation", "load", "size", "retained", "bytes/entry");
+        for (int size : sizes) {
+            String[] keys = randomKeys(size);
+            Integer[] values = new Integer[size];
+            Object[] payload = new Object[2 * size];
+            for (int i = 0; i < size; i++) {
+                values[i] = i;
+                payload[2 * i] = keys[i];
+                payload[2 * i + 1] = values[i];
+            }
+            long payloadBytes = GraphLayout.parseInstance(payload).totalSize();
+
+            for (String name : names) {
+                if (name.equals("ULLMap") && size > ULLMapBenchmark.MAX_SIZE) {
+                    continue;
+                }
+                for (double maxLoad : LOAD_FACTORS) {
+                    boolean hasLoad = !NO_LOAD_FACTOR.contains(name);
+                    if (!hasLoad && maxLoad != LOAD_FACTORS[0]
+                            || name.equals("MyProbingHashMap") && maxLoad >= 1) {
+                        continue;
+                    }
+                    Map61B<String, Integer> map = Map61BBenchmark.create(name, maxLoad);
+                    for (int i = 0; i < size; i++) {
+                        map.put(keys[i], values[i]);
+                    }
+                    long retained = GraphLayout.parseInstance(map).totalSize();
+                    System.out.printf("%-26s %6s %9d %14d %12.1f%n", name,
+                            hasLoad ? String.valueOf(maxLoad) : "-", size, retained,
+                            (double) (retained - payloadBytes) / size);
+                }
+            }
+        }
+    }
+
+    /** Returns N distinct random strings of length 10. */
+    private static String[] randomKeys(int n) {
+        StringUtils.setSeed(61);
+        Set<String> seen = new HashSet<>();
+        String[] keys = new String[n];
+        int i = 0;
+        while (i < n) {
+            String s = StringUtils.randomString(10);
+            if (seen.add(s)) {
+                keys[i] = s;
+                i += 1;
+            }
+        }
+        return keys;
+    }
+}
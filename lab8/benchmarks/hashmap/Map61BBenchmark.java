@@ -0,0 +1,148 @@
+package hashmap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import speed.StringUtils;
+
+/**
+ * Every Map61B, and java.util's HashMap and TreeMap, on the workloads the
+ * old speed tests timed once with a Stopwatch: SIZE String keys that are
+ * random strings of length 10 ("random") or strings in increasing order
+ * ("inorder").
+ * put measures filling an empty map with all the keys; get samples single
+ * lookups of keys in a full map, so its results include percentiles.
+ * Run through BenchmarkRunner for allocation rates as well.
+ *
+ * ULLMap looks keys up by recursion, which overflows the stack at the
+ * larger sizes here, so it is run on its own by ULLMapBenchmark.
+ *
+ * @author Jiayi Mao
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Map61BBenchmark {
+
+    private static final double DEFAULT_MAX_LOAD = 0.75;
+
+    @Param({"MyHashMap", "MyHashMapIncremental", "MyHashMapSeeded",
+            "MyHashMapALBuckets", "MyHashMapLLBuckets", "MyHashMapTSBuckets",
+            "MyHashMapHSBuckets", "MyHashMapPQBuckets", "MyHashMapAdaptiveBuckets",
+            "MyProbingHashMap", "MyConcurrentHashMap", "HashMap", "TreeMap"})
+    public String implementation;
+
+    @Param({"random", "inorder"})
+    public String keys;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private String[] keyArray;
+    private Map61B<String, Integer> full;
+    private SplittableRandom random;
+
+    @Setup
+    public void createKeys() {
+        keyArray = createKeys(keys, size);
+        full = fill(implementation, keyArray);
+        random = new SplittableRandom(61);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Map61B<String, Integer> put() {
+        return fill(implementation, keyArray);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Integer get() {
+        return full.get(keyArray[random.nextInt(size)]);
+    }
+
+    /**
+     * Returns SIZE keys that are random strings of length 10 if ORDER is
+     * "random", or strings in increasing order if it is "inorder".
+     */
+    static String[] createKeys(String order, int size) {
+        String[] keyArray = new String[size];
+        StringUtils.setSeed(61);
+        String s = "cat";
+        for (int i = 0; i < size; i++) {
+            s = order.equals("random") ? StringUtils.randomString(10) : StringUtils.nextString(s);
+            keyArray[i] = s;
+        }
+        return keyArray;
+    }
+
+    /** Returns a map of the kind named NAME from each of KEYARRAY to its index. */
+    static Map61B<String, Integer> fill(String name, String[] keyArray) {
+        Map61B<String, Integer> map = create(name);
+        for (int i = 0; i < keyArray.length; i++) {
+            map.put(keyArray[i], i);
+        }
+        return map;
+    }
+
+    /** Returns an empty map of the kind named NAME. */
+    static Map61B<String, Integer> create(String name) {
+        return create(name, DEFAULT_MAX_LOAD);
+    }
+
+    /**
+     * Returns an empty map of the kind named NAME that keeps its load
+     * factor at most MAXLOAD, if it is a hash table.
+     */
+    static Map61B<String, Integer> create(String name, double maxLoad) {
+        switch (name) {
+            case "ULLMap":
+                return new ULLMap<>();
+            case "MyHashMap":
+                return new MyHashMap<>(16, maxLoad);
+            case "MyHashMapIncremental":
+                return new MyHashMap<>(16, maxLoad, true);
+            case "MyHashMapSeeded":
+                return new MyHashMap<>(16, maxLoad, false, SeededHash.random());
+            case "MyHashMapALBuckets":
+                return new MyHashMapALBuckets<>(16, maxLoad);
+            case "MyHashMapLLBuckets":
+                return new MyHashMapLLBuckets<>(16, maxLoad);
+            case "MyHashMapTSBuckets":
+                return new MyHashMapTSBuckets<>(16, maxLoad);
+            case "MyHashMapHSBuckets":
+                return new MyHashMapHSBuckets<>(16, maxLoad);
+            case "MyHashMapPQBuckets":
+                return new MyHashMapPQBuckets<>(16, maxLoad);
+            case "MyHashMapAdaptiveBuckets":
+                return new MyHashMapAdaptiveBuckets<>(16, maxLoad);
+            case "MyProbingHashMap":
+                return new MyProbingHashMap<>(16, maxLoad);
+            case "MyConcurrentHashMap":
+                return new MyConcurrentHashMap<>(16, maxLoad);
+            case "HashMap":
+                return new JavaMap61B<>(new HashMap<>(16, (float) maxLoad));
+            case "TreeMap":
+                return new JavaMap61B<>(new TreeMap<>());
+            default:
+                throw new IllegalArgumentException("no map named " + name);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package hashmap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The distribution of single put() latencies while a MyHashMap grows to
+ * LIMIT entries, with the table resized all at once or incrementally. JMH
+ * samples the calls and reports percentiles up to p99.99, where the
+ * all-at-once resizes show up and the incremental ones should not. The
+ * map starts over whenever it reaches LIMIT.
+ *
+ * @author Jiayi Mao
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class ResizeLatencyBenchmark {
+
+    @Param({"false", "true"})
+    public boolean incremental;
+
+    @Param({"4000000"})
+    public int limit;
+
+    private MyHashMap<Long, Long> map;
+    private long next;
+
+    @Setup
+    public void createMap() {
+        map = new MyHashMap<>(16, 0.75, incremental);
+        next = 0;
+    }
+
+    @Benchmark
+    public int put() {
+        if (map.size() == limit) {
+            map = new MyHashMap<>(16, 0.75, incremental);
+        }
+        // consecutive keys would fill the buckets in order; this spreads them
+        Long key = next++ * 0x9E3779B97F4A7C15L;
+        map.put(key, key);
+        return map.size();
+    }
+}
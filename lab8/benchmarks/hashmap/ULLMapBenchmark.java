@@ -0,0 +1,64 @@
+package hashmap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The workloads of Map61BBenchmark for ULLMap, which looks keys up by
+ * recursion and so overflows the stack past MAX_SIZE entries. Its sizes
+ * stop there; the first is shared with Map61BBenchmark, so the results
+ * can be compared.
+ *
+ * @author Jiayi Mao
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ULLMapBenchmark {
+
+    static final int MAX_SIZE = 10000;
+
+    @Param({"random", "inorder"})
+    public String keys;
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    private String[] keyArray;
+    private Map61B<String, Integer> full;
+    private SplittableRandom random;
+
+    @Setup
+    public void createKeys() {
+        keyArray = Map61BBenchmark.createKeys(keys, size);
+        full = Map61BBenchmark.fill("ULLMap", keyArray);
+        random = new SplittableRandom(61);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Map61B<String, Integer> put() {
+        return Map61BBenchmark.fill("ULLMap", keyArray);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Integer get() {
+        return full.get(keyArray[random.nextInt(size)]);
+    }
+}
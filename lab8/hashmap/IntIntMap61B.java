@@ -0,0 +1,57 @@
+package hashmap;
+
+/**
+ * A map from int keys to int values that stores both unboxed. It has the
+ * operations of Map61B, with no Integer objects created by put or get, and
+ * a callback forEach in place of an iterator.
+ */
+public interface IntIntMap61B {
+    /** Receives the entries of the map, one call each, from forEach. */
+    interface EntryConsumer {
+        void accept(int key, int value);
+    }
+
+    /** Removes all of the mappings from this map. */
+    void clear();
+
+    /** Returns true if this map contains a mapping for the specified key. */
+    boolean containsKey(int key);
+
+    /**
+     * Returns the value to which the specified key is mapped, or 0 if this
+     * map contains no mapping for the key.
+     */
+    int get(int key);
+
+    /**
+     * Returns the value to which the specified key is mapped, or
+     * defaultValue if this map contains no mapping for the key.
+     */
+    int getOrDefault(int key, int defaultValue);
+
+    /** Returns the number of key-value mappings in this map. */
+    int size();
+
+    /**
+     * Associates the specified value with the specified key in this map.
+     * If the map previously contained a mapping for the key,
+     * the old value is replaced.
+     */
+    void put(int key, int value);
+
+    /**
+     * Adds amount to the value of the specified key, which is taken to be 0
+     * if the key is absent, and returns the new value. This is the one call
+     * a counting loop needs per item.
+     */
+    int addTo(int key, int amount);
+
+    /**
+     * Removes the mapping for the specified key from this map if present.
+     * Returns the value it had, or 0 if there was none.
+     */
+    int remove(int key);
+
+    /** Calls action once with each key and its value, in no particular order. */
+    void forEach(EntryConsumer action);
+}
@@ -0,0 +1,44 @@
+package hashmap;
+
+/**
+ * A map from long keys to values of type V that stores the keys unboxed.
+ * It has the operations of Map61B, with no Long objects created by put or
+ * get, and a callback forEach in place of an iterator.
+ */
+public interface LongObjectMap61B<V> {
+    /** Receives the entries of the map, one call each, from forEach. */
+    interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    /** Removes all of the mappings from this map. */
+    void clear();
+
+    /** Returns true if this map contains a mapping for the specified key. */
+    boolean containsKey(long key);
+
+    /**
+     * Returns the value to which the specified key is mapped, or null if this
+     * map contains no mapping for the key.
+     */
+    V get(long key);
+
+    /** Returns the number of key-value mappings in this map. */
+    int size();
+
+    /**
+     * Associates the specified value with the specified key in this map.
+     * If the map previously contained a mapping for the key,
+     * the old value is replaced.
+     */
+    void put(long key, V value);
+
+    /**
+     * Removes the mapping for the specified key from this map if present.
+     * Returns the value it had, or null if there was none.
+     */
+    V remove(long key);
+
+    /** Calls action once with each key and its value, in no particular order. */
+    void forEach(EntryConsumer<? super V> action);
+}
@@ -1,5 +1,9 @@
 package hashmap;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 /**
  * Your implementation hashmap.MyHashMap should implement this interface. To do so,
@@ -45,5 +49,46 @@ public interface Map61B<K, V> extends Iterable<K> {
      * throw an UnsupportedOperationException.
      */
     V remove(K key, V value);
-}
 
+    /**
+     * Associates each of the specified keys with the value at the same
+     * position of the specified values, as put() would one at a time.
+     * Implementations may make room for the whole batch at once.
+     */
+    default void putAll(List<? extends K> keys, List<? extends V> values) {
+        if (keys.size() != values.size()) {
+            throw new IllegalArgumentException("keys and values differ in length");
+        }
+        Iterator<? extends V> valueIterator = values.iterator();
+        for (K key : keys) {
+            put(key, valueIterator.next());
+        }
+    }
+
+    /**
+     * Returns the values to which the specified keys are mapped, in the
+     * same order, with null for each key this map contains no mapping for.
+     */
+    default List<V> getAll(List<? extends K> keys) {
+        List<V> values = new ArrayList<>(keys.size());
+        for (K key : keys) {
+            values.add(get(key));
+        }
+        return values;
+    }
+
+    /**
+     * Removes the mappings for the specified keys from this map, where
+     * present, and returns the number of mappings removed.
+     */
+    default int removeAll(Collection<? extends K> keys) {
+        int removed = 0;
+        for (K key : keys) {
+            if (containsKey(key)) {
+                remove(key);
+                removed += 1;
+            }
+        }
+        return removed;
+    }
+}
@@ -0,0 +1,435 @@
+package hashmap;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ *  A map from byte strings to byte strings kept off the heap, in two
+ *  memory-mapped files of a directory, so that the garbage collector never
+ *  sees its entries and a map reopened on the same directory is ready at
+ *  once, without being read in.
+ *
+ *  The file "table" holds a header and an open-addressing table with
+ *  linear probing and backward-shift deletion, as MyProbingHashMap uses.
+ *  Each slot holds where its entry starts in the file "data", the key's
+ *  hash and the key's length, so most mismatches are rejected and the
+ *  table is resized without reading any entry. The data file is a log of
+ *  entries, each the key and value lengths followed by their bytes, mapped
+ *  SEGMENT_SIZE bytes at a time. Keys are hashed with a SeededHash whose
+ *  key is chosen when the map is created and kept in the header.
+ *
+ *  Keys are compared by their contents, unlike byte[].equals(). A value
+ *  replaced by one of the same length is overwritten in place; otherwise
+ *  the space of replaced and removed entries is not reclaimed. The map is
+ *  not safe for use by several threads, or by several maps on one
+ *  directory, and only what flush() or close() has forced to disk is sure
+ *  to survive a crash of the machine.
+ *  @author Jiayi Mao
+ */
+public class MappedHashMap implements Map61B<byte[], byte[]>, Closeable {
+
+    private static final int MAGIC = 0x4d363142;     // "M61B"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_SIZE = 16;         // entry offset, hash, key length
+    private static final int ENTRY_HEADER_SIZE = 8;  // key length, value length
+    private static final int DEFAULT_SIZE = 1024;
+    private static final double MAX_LOAD = 0.75;
+    private static final int DEFAULT_SEGMENT_SIZE = 1 << 26;
+    private static final int MAX_SLOTS = 1 << 26;    // the most whose table fits one mapping
+
+    /* Header fields of the table file, by offset */
+    private static final int MAGIC_AT = 0;
+    private static final int VERSION_AT = 4;
+    private static final int SLOTS_AT = 8;
+    private static final int SIZE_AT = 12;
+    private static final int DATA_END_AT = 16;
+    private static final int SEED_AT = 24;
+    private static final int SEGMENT_SIZE_AT = 40;
+
+    /* Instance Variables */
+    private final File tableFile;
+    private final FileChannel data;
+    private final int segmentSize;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private MappedByteBuffer table;
+    private int slots;
+    private int size;
+    private long dataEnd;
+    private final SeededHash hash;
+
+    /** Opens the map kept in DIRECTORY, creating an empty one if there is none. */
+    public MappedHashMap(File directory) {
+        this(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Opens the map kept in DIRECTORY, or creates an empty one whose data
+     * file is mapped SEGMENTSIZE bytes at a time, which bounds the size of
+     * one entry. An existing map keeps the segment size it was created with.
+     */
+    MappedHashMap(File directory, int segmentSize) {
+        directory.mkdirs();
+        tableFile = new File(directory, "table");
+        try {
+            data = FileChannel.open(new File(directory, "data").toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (tableFile.exists()) {
+                table = map(tableFile, tableFile.length());
+                if (table.getInt(MAGIC_AT) != MAGIC || table.getInt(VERSION_AT) != VERSION) {
+                    throw new IllegalArgumentException(tableFile + " is not a map table");
+                }
+                slots = table.getInt(SLOTS_AT);
+                size = table.getInt(SIZE_AT);
+                dataEnd = table.getLong(DATA_END_AT);
+                hash = new SeededHash(table.getLong(SEED_AT), table.getLong(SEED_AT + 8));
+                this.segmentSize = table.getInt(SEGMENT_SIZE_AT);
+            } else {
+                hash = SeededHash.random();
+                this.segmentSize = segmentSize;
+                createTable(tableFile, DEFAULT_SIZE);
+                table = map(tableFile, tableLength(DEFAULT_SIZE));
+                slots = DEFAULT_SIZE;
+                dataEnd = ENTRY_HEADER_SIZE;   // an offset of 0 marks an empty slot
+                writeHeader(table);
+            }
+        } catch (IOException excp) {
+            throw new UncheckedIOException(excp);
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < slots; i++) {
+            table.putLong(slotAt(i), 0);
+        }
+        size = 0;
+        dataEnd = ENTRY_HEADER_SIZE;
+        writeHeader(table);
+    }
+
+    @Override
+    public boolean containsKey(byte[] key) {
+        return findSlot(key, hash(key)) >= 0;
+    }
+
+    @Override
+    public byte[] get(byte[] key) {
+        int slot = findSlot(key, hash(key));
+        return slot < 0 ? null : readValue(slot);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void put(byte[] key, byte[] value) {
+        if ((long) ENTRY_HEADER_SIZE + key.length + value.length > segmentSize) {
+            throw new IllegalArgumentException("entry is larger than a segment");
+        }
+        int h = hash(key);
+        int slot = findSlot(key, h);
+        if (slot >= 0) {
+            ByteBuffer buffer = entryBuffer(table.getLong(slotAt(slot)));
+            buffer.getInt();
+            if (buffer.getInt() == value.length) {
+                buffer.position(buffer.position() + key.length);
+                buffer.put(value);
+                return;
+            }
+        } else {
+            if (size + 1 > slots * MAX_LOAD) {
+                resize(slots * 2);
+                slot = findSlot(key, h);
+            }
+            slot = ~slot;
+            size += 1;
+        }
+        long entry = append(key, value);
+        int at = slotAt(slot);
+        table.putInt(at + 8, h);
+        table.putInt(at + 12, key.length);
+        table.putLong(at, entry);
+        table.putInt(SIZE_AT, size);
+    }
+
+    /**
+     * Returns a set of copies of the keys. Being arrays, they are held in
+     * the set by identity.
+     */
+    @Override
+    public Set<byte[]> keySet() {
+        Set<byte[]> keys = new HashSet<>();
+        for (byte[] key : this) {
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    @Override
+    public byte[] remove(byte[] key) {
+        int slot = findSlot(key, hash(key));
+        if (slot < 0) {
+            return null;
+        }
+        byte[] value = readValue(slot);
+        deleteSlot(slot);
+        return value;
+    }
+
+    @Override
+    public byte[] remove(byte[] key, byte[] value) {
+        int slot = findSlot(key, hash(key));
+        if (slot < 0) {
+            return null;
+        }
+        byte[] current = readValue(slot);
+        if (!Arrays.equals(current, value)) {
+            return null;
+        }
+        deleteSlot(slot);
+        return current;
+    }
+
+    /** Returns an iterator over copies of the keys, in slot order. */
+    @Override
+    public Iterator<byte[]> iterator() {
+        return new Iterator<byte[]>() {
+            private int slot = advance(0);
+
+            @Override
+            public boolean hasNext() {
+                return slot < slots;
+            }
+
+            @Override
+            public byte[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                ByteBuffer buffer = entryBuffer(table.getLong(slotAt(slot)));
+                byte[] key = new byte[buffer.getInt()];
+                buffer.getInt();
+                buffer.get(key);
+                slot = advance(slot + 1);
+                return key;
+            }
+
+            private int advance(int from) {
+                while (from < slots && table.getLong(slotAt(from)) == 0) {
+                    from += 1;
+                }
+                return from;
+            }
+        };
+    }
+
+    /** Forces every change so far out to the files. */
+    public void flush() {
+        table.force();
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    /** Flushes the map and closes its data file. The map may not be used after. */
+    @Override
+    public void close() {
+        flush();
+        try {
+            data.close();
+        } catch (IOException excp) {
+            throw new UncheckedIOException(excp);
+        }
+    }
+
+    private int hash(byte[] key) {
+        long h = hash.hashBytes(key, 0, key.length);
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Returns the slot holding KEY, whose hash is H, or, if KEY is absent,
+     * the complement (~) of the free slot where it would go.
+     */
+    private int findSlot(byte[] key, int h) {
+        int mask = slots - 1;
+        int slot = h & mask;
+        long entry;
+        while ((entry = table.getLong(slotAt(slot))) != 0) {
+            int at = slotAt(slot);
+            if (table.getInt(at + 8) == h && table.getInt(at + 12) == key.length
+                    && keyEquals(entry, key)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return ~slot;
+    }
+
+    /** Returns a copy of the value of the entry in SLOT. */
+    private byte[] readValue(int slot) {
+        ByteBuffer buffer = entryBuffer(table.getLong(slotAt(slot)));
+        int keyLength = buffer.getInt();
+        byte[] value = new byte[buffer.getInt()];
+        buffer.position(buffer.position() + keyLength);
+        buffer.get(value);
+        return value;
+    }
+
+    /** Returns whether the entry at ENTRY has the key KEY, of the same length. */
+    private boolean keyEquals(long entry, byte[] key) {
+        ByteBuffer buffer = entryBuffer(entry);
+        int start = buffer.position() + ENTRY_HEADER_SIZE;
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.get(start + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Empties SLOT, then pulls each later slot of the same run back into
+     * the hole unless that would move it in front of its home slot.
+     */
+    private void deleteSlot(int slot) {
+        int mask = slots - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (table.getLong(slotAt(next)) != 0) {
+            int home = table.getInt(slotAt(next) + 8) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                copySlot(table, next, hole);
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table.putLong(slotAt(hole), 0);
+        size -= 1;
+        table.putInt(SIZE_AT, size);
+    }
+
+    private static void copySlot(ByteBuffer table, int from, int to) {
+        table.putLong(slotAt(to), table.getLong(slotAt(from)));
+        table.putLong(slotAt(to) + 8, table.getLong(slotAt(from) + 8));
+    }
+
+    /**
+     * Rebuilds the table with NEWSLOTS slots in a file next to it, from the
+     * hashes in the slots alone, and moves it over the old one.
+     */
+    private void resize(int newSlots) {
+        if (newSlots > MAX_SLOTS) {
+            throw new IllegalStateException("map is full");
+        }
+        File temp = new File(tableFile.getParentFile(), "table.resize");
+        try {
+            createTable(temp, newSlots);
+            MappedByteBuffer newTable = map(temp, tableLength(newSlots));
+            int mask = newSlots - 1;
+            for (int i = 0; i < slots; i++) {
+                long entry = table.getLong(slotAt(i));
+                if (entry == 0) {
+                    continue;
+                }
+                int slot = table.getInt(slotAt(i) + 8) & mask;
+                while (newTable.getLong(slotAt(slot)) != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                newTable.putLong(slotAt(slot), entry);
+                newTable.putLong(slotAt(slot) + 8, table.getLong(slotAt(i) + 8));
+            }
+            slots = newSlots;
+            writeHeader(newTable);
+            newTable.force();
+            Files.move(temp.toPath(), tableFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            table = newTable;
+        } catch (IOException excp) {
+            throw new UncheckedIOException(excp);
+        }
+    }
+
+    /** Writes KEY and VALUE at the end of the data and returns where they start. */
+    private long append(byte[] key, byte[] value) {
+        long length = (long) ENTRY_HEADER_SIZE + key.length + value.length;
+        long entry = dataEnd;
+        if (entry % segmentSize + length > segmentSize) {
+            // entries never straddle two segments
+            entry = (entry / segmentSize + 1) * segmentSize;
+        }
+        ByteBuffer buffer = entryBuffer(entry);
+        buffer.putInt(key.length).putInt(value.length).put(key).put(value);
+        dataEnd = entry + length;
+        table.putLong(DATA_END_AT, dataEnd);
+        return entry;
+    }
+
+    /** Returns a buffer positioned at ENTRY, up to the end of its segment. */
+    private ByteBuffer entryBuffer(long entry) {
+        int index = (int) (entry / segmentSize);
+        try {
+            while (segments.size() <= index) {
+                segments.add(data.map(FileChannel.MapMode.READ_WRITE,
+                        (long) segments.size() * segmentSize, segmentSize));
+            }
+        } catch (IOException excp) {
+            throw new UncheckedIOException(excp);
+        }
+        ByteBuffer buffer = segments.get(index).duplicate();
+        buffer.position((int) (entry % segmentSize));
+        return buffer;
+    }
+
+    private void writeHeader(ByteBuffer header) {
+        header.putInt(MAGIC_AT, MAGIC);
+        header.putInt(VERSION_AT, VERSION);
+        header.putInt(SLOTS_AT, slots);
+        header.putInt(SIZE_AT, size);
+        header.putLong(DATA_END_AT, dataEnd);
+        header.putLong(SEED_AT, hash.getK0());
+        header.putLong(SEED_AT + 8, hash.getK1());
+        header.putInt(SEGMENT_SIZE_AT, segmentSize);
+    }
+
+    private static int slotAt(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private static long tableLength(int slots) {
+        return HEADER_SIZE + (long) slots * SLOT_SIZE;
+    }
+
+    /** Creates FILE, of the length of a table of SLOTS empty slots. */
+    private static void createTable(File file, int slots) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(1), tableLength(slots) - 1);
+        }
+    }
+
+    private static MappedByteBuffer map(File file, long length) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package hashmap;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *  A hash table-backed Map implementation that many threads may use at once.
+ *
+ *  Buckets are chains of nodes whose next links never change, so a reader
+ *  walks a chain without locking and sees it either before or after any
+ *  write; removing a node copies the part of the chain in front of it.
+ *  Writers lock one of a fixed set of stripes, chosen by bucket index, so
+ *  writers to different stripes never wait on each other. Since every table
+ *  has at least as many buckets as there are stripes, bucket i of a table
+ *  and buckets i and i + n of the table twice its size n share a stripe.
+ *
+ *  Resizing is incremental and shared. The thread that crosses the load
+ *  factor allocates the new table, and from then on every writer moves a
+ *  stride of buckets across before finishing its own operation. A bucket
+ *  that has been moved is replaced by a forwarding node that sends readers
+ *  and writers on to the new table, so nothing waits for the whole resize.
+ *
+ *  Assumes null keys and values will never be inserted, and does not resize
+ *  down upon remove(). The iterator and keySet() reflect some state of the
+ *  map while they run, not necessarily one single moment.
+ *  @author Jiayi Mao
+ */
+public class MyConcurrentHashMap<K, V> implements Map61B<K, V> {
+
+    private static final int DEFAULT_SIZE = 16;
+    private static final double DEFAULT_MAX_LOAD = 0.75;
+    private static final int TRANSFER_STRIDE = 16;
+
+    /** A key-value pair and the rest of its bucket. */
+    private static class Node<K, V> {
+        final int hash;
+        final K key;
+        volatile V value;
+        final Node<K, V> next;
+
+        Node(int hash, K key, V value, Node<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    /** Stands in for a bucket that has been moved to the next table. */
+    private static class ForwardingNode<K, V> extends Node<K, V> {
+        final Resize<K, V> resize;
+
+        ForwardingNode(Resize<K, V> resize) {
+            super(-1, null, null, null);
+            this.resize = resize;
+        }
+    }
+
+    /** The progress of moving every bucket of one table into the next. */
+    private static class Resize<K, V> {
+        final AtomicReferenceArray<Node<K, V>> from;
+        final AtomicReferenceArray<Node<K, V>> to;
+        final AtomicInteger nextBucket;     // buckets below this are still to be claimed
+        final AtomicInteger moved = new AtomicInteger();
+
+        Resize(AtomicReferenceArray<Node<K, V>> from) {
+            this.from = from;
+            this.to = new AtomicReferenceArray<>(from.length() * 2);
+            this.nextBucket = new AtomicInteger(from.length());
+        }
+    }
+
+    /* Instance Variables */
+    private volatile AtomicReferenceArray<Node<K, V>> table;
+    private volatile Resize<K, V> resize;   // null unless a resize is under way
+    private final Object[] locks;
+    private final LongAdder size = new LongAdder();
+    private final double maxLoad;
+
+    /** Constructors */
+    public MyConcurrentHashMap() {
+        this(DEFAULT_SIZE, DEFAULT_MAX_LOAD);
+    }
+
+    public MyConcurrentHashMap(int initialSize) {
+        this(initialSize, DEFAULT_MAX_LOAD);
+    }
+
+    /**
+     * MyConcurrentHashMap constructor that creates a backing array of at
+     * least initialSize buckets, and one lock stripe for a few buckets per
+     * processor. The load factor (# items / # buckets) should always be
+     * <= loadFactor, apart from items put while a resize is under way.
+     *
+     * @param initialSize initial size of backing array
+     * @param maxLoad maximum load factor
+     */
+    public MyConcurrentHashMap(int initialSize, double maxLoad) {
+        if (initialSize < 1 || maxLoad <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.maxLoad = maxLoad;
+        int stripes = powerOfTwoAtLeast(4 * Runtime.getRuntime().availableProcessors());
+        locks = new Object[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new Object();
+        }
+        table = new AtomicReferenceArray<>(powerOfTwoAtLeast(Math.max(initialSize, stripes)));
+    }
+
+    /**
+     * Removes all of the mappings from this map. Items put by other threads
+     * while it runs may or may not remain.
+     */
+    @Override
+    public void clear() {
+        AtomicReferenceArray<Node<K, V>> tab = table;
+        for (int i = 0; i < tab.length(); i++) {
+            clearBucket(tab, i);
+        }
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return getNode(key) != null;
+    }
+
+    @Override
+    public V get(K key) {
+        Node<K, V> node = getNode(key);
+        return node == null ? null : node.value;
+    }
+
+    @Override
+    public int size() {
+        long count = size.sum();
+        return count < 0 ? 0 : (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException();
+        }
+        int hash = spread(key.hashCode());
+        AtomicReferenceArray<Node<K, V>> tab = table;
+        while (true) {
+            int i = hash & (tab.length() - 1);
+            Node<K, V> first = tab.get(i);
+            if (first instanceof ForwardingNode) {
+                Resize<K, V> r = ((ForwardingNode<K, V>) first).resize;
+                helpResize(r);
+                tab = r.to;
+                continue;
+            }
+            boolean added;
+            synchronized (lockFor(i)) {
+                if (tab.get(i) != first) {
+                    continue;
+                }
+                Node<K, V> node = find(first, hash, key);
+                if (node != null) {
+                    node.value = value;
+                    added = false;
+                } else {
+                    tab.set(i, new Node<>(hash, key, value, first));
+                    added = true;
+                }
+            }
+            if (added) {
+                size.increment();
+                maybeStartResize(tab);
+            }
+            Resize<K, V> r = resize;
+            if (r != null) {
+                helpResize(r);
+            }
+            return;
+        }
+    }
+
+    @Override
+    public Set<K> keySet() {
+        Set<K> keys = new HashSet<>();
+        AtomicReferenceArray<Node<K, V>> tab = table;
+        for (int i = 0; i < tab.length(); i++) {
+            addKeys(tab, i, keys);
+        }
+        return keys;
+    }
+
+    @Override
+    public V remove(K key) {
+        return removeNode(key, null);
+    }
+
+    @Override
+    public V remove(K key, V value) {
+        if (value == null) {
+            return null;
+        }
+        return removeNode(key, value);
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return keySet().iterator();
+    }
+
+    /** Returns the node holding KEY, or null if there is none, without locking. */
+    private Node<K, V> getNode(K key) {
+        int hash = spread(key.hashCode());
+        AtomicReferenceArray<Node<K, V>> tab = table;
+        while (true) {
+            Node<K, V> first = tab.get(hash & (tab.length() - 1));
+            if (first instanceof ForwardingNode) {
+                tab = ((ForwardingNode<K, V>) first).resize.to;
+                continue;
+            }
+            return find(first, hash, key);
+        }
+    }
+
+    /** Removes KEY if it is mapped to EXPECTED, or to anything if EXPECTED is null. */
+    private V removeNode(K key, V expected) {
+        int hash = spread(key.hashCode());
+        AtomicReferenceArray<Node<K, V>> tab = table;
+        while (true) {
+            int i = hash & (tab.length() - 1);
+            Node<K, V> first = tab.get(i);
+            if (first instanceof ForwardingNode) {
+                Resize<K, V> r = ((ForwardingNode<K, V>) first).resize;
+                helpResize(r);
+                tab = r.to;
+                continue;
+            }
+            synchronized (lockFor(i)) {
+                if (tab.get(i) != first) {
+                    continue;
+                }
+                Node<K, V> target = find(first, hash, key);
+                if (target == null) {
+                    return null;
+                }
+                V value = target.value;
+                if (expected != null && !expected.equals(value)) {
+                    return null;
+                }
+                // the nodes after TARGET are kept; the ones in front are copied
+                Node<K, V> rest = target.next;
+                for (Node<K, V> node = first; node != target; node = node.next) {
+                    rest = new Node<>(node.hash, node.key, node.value, rest);
+                }
+                tab.set(i, rest);
+                size.decrement();
+                return value;
+            }
+        }
+    }
+
+    /** Returns the node of the chain FIRST holding KEY, whose spread hash is HASH. */
+    private Node<K, V> find(Node<K, V> first, int hash, K key) {
+        for (Node<K, V> node = first; node != null; node = node.next) {
+            if (node.hash == hash && node.key.equals(key)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /** Adds the keys of bucket I of TAB, following it if it has moved, to KEYS. */
+    private void addKeys(AtomicReferenceArray<Node<K, V>> tab, int i, Set<K> keys) {
+        Node<K, V> first = tab.get(i);
+        if (first instanceof ForwardingNode) {
+            AtomicReferenceArray<Node<K, V>> to = ((ForwardingNode<K, V>) first).resize.to;
+            addKeys(to, i, keys);
+            addKeys(to, i + tab.length(), keys);
+            return;
+        }
+        for (Node<K, V> node = first; node != null; node = node.next) {
+            keys.add(node.key);
+        }
+    }
+
+    /** Empties bucket I of TAB, following it if it has moved. */
+    private void clearBucket(AtomicReferenceArray<Node<K, V>> tab, int i) {
+        while (true) {
+            Node<K, V> first = tab.get(i);
+            if (first instanceof ForwardingNode) {
+                AtomicReferenceArray<Node<K, V>> to = ((ForwardingNode<K, V>) first).resize.to;
+                clearBucket(to, i);
+                clearBucket(to, i + tab.length());
+                return;
+            }
+            if (first == null) {
+                return;
+            }
+            synchronized (lockFor(i)) {
+                if (tab.get(i) != first) {
+                    continue;
+                }
+                int removed = 0;
+                for (Node<K, V> node = first; node != null; node = node.next) {
+                    removed += 1;
+                }
+                tab.set(i, null);
+                size.add(-removed);
+                return;
+            }
+        }
+    }
+
+    /** Starts doubling TAB if it is still the table and is over its load factor. */
+    private void maybeStartResize(AtomicReferenceArray<Node<K, V>> tab) {
+        if (resize != null || tab != table || size.sum() <= tab.length() * maxLoad) {
+            return;
+        }
+        synchronized (this) {
+            if (resize == null && tab == table) {
+                resize = new Resize<>(tab);
+            }
+        }
+    }
+
+    /**
+     * Claims the next stride of buckets of R and moves them, finishing R if
+     * they were the last. Returns false if there was nothing left to claim.
+     */
+    private boolean helpResize(Resize<K, V> r) {
+        int end;
+        int start;
+        do {
+            end = r.nextBucket.get();
+            if (end <= 0) {
+                return false;
+            }
+            start = Math.max(0, end - TRANSFER_STRIDE);
+        } while (!r.nextBucket.compareAndSet(end, start));
+
+        ForwardingNode<K, V> forward = new ForwardingNode<>(r);
+        int n = r.from.length();
+        for (int i = start; i < end; i++) {
+            synchronized (lockFor(i)) {
+                Node<K, V> low = null;
+                Node<K, V> high = null;
+                for (Node<K, V> node = r.from.get(i); node != null; node = node.next) {
+                    if ((node.hash & n) == 0) {
+                        low = new Node<>(node.hash, node.key, node.value, low);
+                    } else {
+                        high = new Node<>(node.hash, node.key, node.value, high);
+                    }
+                }
+                r.to.set(i, low);
+                r.to.set(i + n, high);
+                r.from.set(i, forward);
+            }
+        }
+        if (r.moved.addAndGet(end - start) == n) {
+            table = r.to;
+            resize = null;
+            maybeStartResize(r.to);
+        }
+        return true;
+    }
+
+    private Object lockFor(int bucket) {
+        return locks[bucket & (locks.length - 1)];
+    }
+
+    /** Folds the high bits of H into the low ones, which pick the bucket. */
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private static int powerOfTwoAtLeast(int n) {
+        int result = 1;
+        while (result < n) {
+            result *= 2;
+        }
+        return result;
+    }
+}
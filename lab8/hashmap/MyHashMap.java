@@ -1,13 +1,39 @@
 package hashmap;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
 
 /**
  *  A hash table-backed Map implementation. Provides amortized constant time
  *  access to elements via get(), remove(), and put() in the best case.
  *
+ *  A bucket is created the first time a key is put in it, so growing the
+ *  table costs one array, however many of its buckets stay empty.
+ *
+ *  By default the table grows all at once, moving every node when the load
+ *  factor is crossed. A map built with incrementalResize set instead keeps
+ *  the old table next to the new one, as Redis's dict does, and each put()
+ *  and remove() moves a few old buckets across, so no single call pays for
+ *  the whole resize. Lookups meanwhile check both tables.
+ *
+ *  Keys are placed by their hashCode(), unless the map is given a
+ *  SeededHash, whose secret key keeps anyone who picks the keys, such as
+ *  the sender of untrusted strings, from making them all collide.
+ *
+ *  The bulk operations putAll(), getAll() and removeAll() finish any resize
+ *  under way, grow the table once for the whole batch, hash every key up
+ *  front, and then visit the keys in order of where they fall in the
+ *  table, so a large batch sweeps the table once instead of hopping
+ *  across it at random.
+ *
  *  Assumes null keys will never be inserted, and does not resize down upon remove().
- *  @author YOUR NAME HERE
+ *  @author Jiayi Mao
  */
 public class MyHashMap<K, V> implements Map61B<K, V> {
 
@@ -25,14 +51,32 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
         }
     }
 
+    private static final int DEFAULT_SIZE = 16;
+    private static final double DEFAULT_MAX_LOAD = 0.75;
+    /** Old buckets moved by each put() or remove() during an incremental resize. */
+    private static final int REHASH_STEPS = 2;
+    /** Empty old buckets that may be skipped over for each one moved. */
+    private static final int EMPTY_VISITS = 10;
+    /** Stretches of the table that the keys of a bulk operation are sorted into. */
+    private static final int BATCH_STRETCHES = 1024;
+
     /* Instance Variables */
     private Collection<Node>[] buckets;
-    // You should probably define some more!
+    private int size;
+    private final double maxLoad;
+    private final boolean incrementalResize;
+    private Collection<Node>[] oldBuckets;   // the table being emptied, or null
+    private int rehashIndex;                 // old buckets below this have been moved
+    private final SeededHash hash;           // null to use hashCode()
 
     /** Constructors */
-    public MyHashMap() { }
+    public MyHashMap() {
+        this(DEFAULT_SIZE, DEFAULT_MAX_LOAD);
+    }
 
-    public MyHashMap(int initialSize) { }
+    public MyHashMap(int initialSize) {
+        this(initialSize, DEFAULT_MAX_LOAD);
+    }
 
     /**
      * MyHashMap constructor that creates a backing array of initialSize.
@@ -41,13 +85,52 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
      * @param initialSize initial size of backing array
      * @param maxLoad maximum load factor
      */
-    public MyHashMap(int initialSize, double maxLoad) { }
+    public MyHashMap(int initialSize, double maxLoad) {
+        this(initialSize, maxLoad, false);
+    }
+
+    /**
+     * MyHashMap constructor that creates a backing array of initialSize,
+     * and that resizes it a few buckets at a time if incrementalResize
+     * is true. The load factor (# items / # buckets) of the newest table
+     * should always be <= loadFactor
+     *
+     * @param initialSize initial size of backing array
+     * @param maxLoad maximum load factor
+     * @param incrementalResize whether to spread each resize over later calls
+     */
+    public MyHashMap(int initialSize, double maxLoad, boolean incrementalResize) {
+        this(initialSize, maxLoad, incrementalResize, null);
+    }
+
+    /**
+     * MyHashMap constructor that creates a backing array of initialSize,
+     * resizes it a few buckets at a time if incrementalResize is true, and
+     * places keys with hash instead of their hashCode(), unless it is null.
+     * The load factor (# items / # buckets) of the newest table should
+     * always be <= loadFactor
+     *
+     * @param initialSize initial size of backing array
+     * @param maxLoad maximum load factor
+     * @param incrementalResize whether to spread each resize over later calls
+     * @param hash the hash function for keys, such as SeededHash.random()
+     */
+    public MyHashMap(int initialSize, double maxLoad, boolean incrementalResize,
+                     SeededHash hash) {
+        if (initialSize < 1 || maxLoad <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.maxLoad = maxLoad;
+        this.incrementalResize = incrementalResize;
+        this.hash = hash;
+        this.buckets = createTable(initialSize);
+    }
 
     /**
      * Returns a new node to be placed in a hash table bucket
      */
     private Node createNode(K key, V value) {
-        return null;
+        return new Node(key, value);
     }
 
     /**
@@ -69,23 +152,320 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
      * OWN BUCKET DATA STRUCTURES WITH THE NEW OPERATOR!
      */
     protected Collection<Node> createBucket() {
+        return new LinkedList<>();
+    }
+
+    /**
+     * Returns the node of BUCKET holding KEY, or null if there is none.
+     * This looks at every node in turn; override it along with
+     * createBucket() when the bucket type can find a key faster.
+     */
+    protected Node findInBucket(Collection<Node> bucket, K key) {
+        for (Node node : bucket) {
+            if (node.key.equals(key)) {
+                return node;
+            }
+        }
         return null;
     }
 
     /**
      * Returns a table to back our hash table. As per the comment
-     * above, this table can be an array of Collection objects
+     * above, this table can be an array of Collection objects. Its
+     * buckets are left null until something is put in them.
      *
      * BE SURE TO CALL THIS FACTORY METHOD WHEN CREATING A TABLE SO
      * THAT ALL BUCKET TYPES ARE OF JAVA.UTIL.COLLECTION
      *
      * @param tableSize the size of the table to create
      */
+    @SuppressWarnings({"unchecked", "rawtypes"})
     private Collection<Node>[] createTable(int tableSize) {
-        return null;
+        return new Collection[tableSize];
+    }
+
+    @Override
+    public void clear() {
+        buckets = createTable(buckets.length);
+        oldBuckets = null;
+        size = 0;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return getNode(key) != null;
+    }
+
+    @Override
+    public V get(K key) {
+        Node node = getNode(key);
+        return node == null ? null : node.value;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        rehashStep();
+        Node node = getNode(key);
+        if (node != null) {
+            node.value = value;
+            return;
+        }
+        if ((double) (size + 1) / buckets.length > maxLoad) {
+            resize(buckets.length * 2);
+        }
+        addNode(buckets, createNode(key, value));
+        size += 1;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        Set<K> keys = new HashSet<>();
+        addKeys(oldBuckets, keys);
+        addKeys(buckets, keys);
+        return keys;
+    }
+
+    @Override
+    public V remove(K key) {
+        rehashStep();
+        Node node = getNode(key);
+        if (node == null) {
+            return null;
+        }
+        Collection<Node> bucket = buckets[bucketIndex(key, buckets.length)];
+        if (bucket == null || !bucket.remove(node)) {
+            oldBuckets[bucketIndex(key, oldBuckets.length)].remove(node);
+        }
+        size -= 1;
+        return node.value;
+    }
+
+    @Override
+    public V remove(K key, V value) {
+        Node node = getNode(key);
+        if (node == null || (value == null ? node.value != null : !value.equals(node.value))) {
+            return null;
+        }
+        return remove(key);
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return keySet().iterator();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void putAll(List<? extends K> keys, List<? extends V> values) {
+        if (keys.size() != values.size()) {
+            throw new IllegalArgumentException("keys and values differ in length");
+        }
+        Object[] keyArray = keys.toArray();
+        Object[] valueArray = values.toArray();
+        growFor(size + keyArray.length);
+        int[] indexes = bucketIndexes(keyArray);
+        for (int i : tableOrder(indexes)) {
+            K key = (K) keyArray[i];
+            Collection<Node> bucket = buckets[indexes[i]];
+            Node node = bucket == null ? null : findInBucket(bucket, key);
+            if (node != null) {
+                node.value = (V) valueArray[i];
+            } else {
+                addNode(buckets, createNode(key, (V) valueArray[i]));
+                size += 1;
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<V> getAll(List<? extends K> keys) {
+        Object[] keyArray = keys.toArray();
+        finishResize();
+        int[] indexes = bucketIndexes(keyArray);
+        Object[] values = new Object[keyArray.length];
+        for (int i : tableOrder(indexes)) {
+            Collection<Node> bucket = buckets[indexes[i]];
+            Node node = bucket == null ? null : findInBucket(bucket, (K) keyArray[i]);
+            values[i] = node == null ? null : node.value;
+        }
+        return (List<V>) new ArrayList<>(Arrays.asList(values));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public int removeAll(Collection<? extends K> keys) {
+        Object[] keyArray = keys.toArray();
+        finishResize();
+        int[] indexes = bucketIndexes(keyArray);
+        int removed = 0;
+        for (int i : tableOrder(indexes)) {
+            Collection<Node> bucket = buckets[indexes[i]];
+            Node node = bucket == null ? null : findInBucket(bucket, (K) keyArray[i]);
+            if (node != null) {
+                bucket.remove(node);
+                removed += 1;
+            }
+        }
+        size -= removed;
+        return removed;
+    }
+
+    /** Returns the node holding KEY, or null if there is none. */
+    private Node getNode(K key) {
+        Node node = findIn(buckets, key);
+        if (node == null && oldBuckets != null) {
+            node = findIn(oldBuckets, key);
+        }
+        return node;
+    }
+
+    /** Returns the node holding KEY in TABLE, or null if there is none. */
+    private Node findIn(Collection<Node>[] table, K key) {
+        Collection<Node> bucket = table[bucketIndex(key, table.length)];
+        return bucket == null ? null : findInBucket(bucket, key);
+    }
+
+    /** Adds NODE to its bucket of TABLE, creating the bucket if need be. */
+    private void addNode(Collection<Node>[] table, Node node) {
+        int index = bucketIndex(node.key, table.length);
+        if (table[index] == null) {
+            table[index] = createBucket();
+        }
+        table[index].add(node);
+    }
+
+    /** Adds the keys of every bucket of TABLE, which may be null, to KEYS. */
+    private void addKeys(Collection<Node>[] table, Set<K> keys) {
+        if (table == null) {
+            return;
+        }
+        for (Collection<Node> bucket : table) {
+            if (bucket != null) {
+                for (Node node : bucket) {
+                    keys.add(node.key);
+                }
+            }
+        }
+    }
+
+    /** Returns the bucket KEY belongs in, in a table of TABLESIZE buckets. */
+    private int bucketIndex(K key, int tableSize) {
+        int h = hash == null ? key.hashCode() : hash.hash(key);
+        return Math.floorMod(h, tableSize);
+    }
+
+    /** Returns the bucket each of KEYS belongs in, in the current table. */
+    @SuppressWarnings("unchecked")
+    private int[] bucketIndexes(Object[] keys) {
+        int[] indexes = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            indexes[i] = bucketIndex((K) keys[i], buckets.length);
+        }
+        return indexes;
+    }
+
+    /**
+     * Returns the positions of INDEXES, sorted by which of BATCH_STRETCHES
+     * equal stretches of the table each bucket index falls in. This is a
+     * counting sort, and keeps positions in the same stretch in order.
+     */
+    private int[] tableOrder(int[] indexes) {
+        int stretches = Math.min(BATCH_STRETCHES, buckets.length);
+        int[] starts = new int[stretches + 1];
+        for (int index : indexes) {
+            starts[stretchOf(index, stretches) + 1] += 1;
+        }
+        for (int s = 1; s <= stretches; s++) {
+            starts[s] += starts[s - 1];
+        }
+        int[] order = new int[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            order[starts[stretchOf(indexes[i], stretches)]++] = i;
+        }
+        return order;
+    }
+
+    /** Returns which of STRETCHES equal stretches of the table INDEX is in. */
+    private int stretchOf(int index, int stretches) {
+        return (int) ((long) index * stretches / buckets.length);
+    }
+
+    /**
+     * Finishes any resize under way, then grows the table all at once to
+     * the size it would have reached after EXPECTED items were put.
+     */
+    private void growFor(int expected) {
+        finishResize();
+        int tableSize = buckets.length;
+        while ((double) expected / tableSize > maxLoad && tableSize <= Integer.MAX_VALUE / 2) {
+            tableSize *= 2;
+        }
+        if (tableSize > buckets.length) {
+            resize(tableSize);
+            finishResize();
+        }
+    }
+
+    /** Moves every old bucket across, if a resize is under way. */
+    private void finishResize() {
+        if (oldBuckets != null) {
+            moveBuckets(oldBuckets.length);
+        }
     }
 
-    // TODO: Implement the methods of the Map61B Interface below
-    // Your code won't compile until you do so!
+    /**
+     * Moves to a new table of TABLESIZE buckets: every node at once, or,
+     * for an incremental resize, none yet.
+     */
+    private void resize(int tableSize) {
+        // the last resize is not done; a map growing this fast pays for it now
+        finishResize();
+        oldBuckets = buckets;
+        rehashIndex = 0;
+        buckets = createTable(tableSize);
+        if (!incrementalResize) {
+            moveBuckets(oldBuckets.length);
+        }
+    }
+
+    /**
+     * Moves the next REHASH_STEPS non-empty old buckets to the new table,
+     * if a resize is under way. Since the table doubles, at the default
+     * load factor its old buckets are all moved before it grows again.
+     */
+    private void rehashStep() {
+        if (oldBuckets != null) {
+            moveBuckets(REHASH_STEPS);
+        }
+    }
 
+    /**
+     * Moves up to COUNT non-empty old buckets, skipping at most EMPTY_VISITS
+     * empty buckets for each, and drops the old table once it is empty.
+     */
+    private void moveBuckets(int count) {
+        int emptyVisits = count * EMPTY_VISITS;
+        while (count > 0 && rehashIndex < oldBuckets.length) {
+            Collection<Node> bucket = oldBuckets[rehashIndex];
+            oldBuckets[rehashIndex] = null;
+            rehashIndex += 1;
+            if (bucket != null && !bucket.isEmpty()) {
+                for (Node node : bucket) {
+                    addNode(buckets, node);
+                }
+                count -= 1;
+            } else if (--emptyVisits == 0) {
+                break;
+            }
+        }
+        if (rehashIndex == oldBuckets.length) {
+            oldBuckets = null;
+        }
+    }
 }
@@ -0,0 +1,196 @@
+package hashmap;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * Hash Table with buckets that start as small arrays and become balanced
+ * trees once they hold more than TREEIFY_THRESHOLD nodes, as the bins of
+ * java.util.HashMap do. An ordinary bucket stays a short array scanned in
+ * order, while a bucket that many colliding keys pile into, as in a hash
+ * flooding attack, is searched in logarithmic time. A tree bucket that
+ * shrinks to UNTREEIFY_THRESHOLD nodes becomes an array again.
+ * The trees order keys by their compareTo method, so we restrict our map
+ * to only allow comparable keys. Keys that compare as equal need not be
+ * equal, like BigDecimal 1.0 and 1.00, so a tree maps each key to the list
+ * of nodes whose keys compare equal to it, and a match is always confirmed
+ * with equals, as in java.util.HashMap.
+ *
+ * @author Jiayi Mao
+ */
+public class MyHashMapAdaptiveBuckets<K extends Comparable<K>, V> extends MyHashMap<K, V> {
+
+    private static final int TREEIFY_THRESHOLD = 8;
+    private static final int UNTREEIFY_THRESHOLD = 6;
+
+    /**
+     * Constructor that creates a backing array with default
+     * initial size and load factor
+     */
+    public MyHashMapAdaptiveBuckets() {
+        super();
+    }
+
+    /**
+     * Constructor that creates a backing array of initialSize
+     * and default load factor
+     *
+     * @param initialSize initial size of backing array
+     */
+    public MyHashMapAdaptiveBuckets(int initialSize) {
+        super(initialSize);
+    }
+
+    /**
+     * Constructor that creates a backing array of initialSize.
+     * The load factor (# items / # buckets) should always be <= loadFactor
+     *
+     * @param initialSize initial size of backing array
+     * @param maxLoad maximum load factor
+     */
+    public MyHashMapAdaptiveBuckets(int initialSize, double maxLoad) {
+        super(initialSize, maxLoad);
+    }
+
+    @Override
+    protected Collection<Node> createBucket() {
+        return new AdaptiveBucket();
+    }
+
+    @Override
+    protected Node findInBucket(Collection<Node> bucket, K key) {
+        return ((AdaptiveBucket) bucket).find(key);
+    }
+
+    /** A bucket held as an array of nodes, or as a tree of them by key. */
+    private class AdaptiveBucket extends AbstractCollection<Node> {
+        private Object[] nodes = new Object[2];   // the nodes, while not a tree
+        private int size;
+        private TreeMap<K, List<Node>> tree;        // null while an array
+
+        /** Returns the node holding KEY, or null if there is none. */
+        @SuppressWarnings("unchecked")
+        Node find(K key) {
+            if (tree != null) {
+                List<Node> sameOrder = tree.get(key);
+                return sameOrder == null ? null : findAmong(sameOrder, key);
+            }
+            for (int i = 0; i < size; i++) {
+                Node node = (Node) nodes[i];
+                if (node.key.equals(key)) {
+                    return node;
+                }
+            }
+            return null;
+        }
+
+        /** Returns the node of CANDIDATES holding KEY, or null if there is none. */
+        private Node findAmong(List<Node> candidates, K key) {
+            for (Node node : candidates) {
+                if (node.key.equals(key)) {
+                    return node;
+                }
+            }
+            return null;
+        }
+
+        /** Adds NODE to the tree, next to the nodes whose keys compare equal to its key. */
+        private void addToTree(Node node) {
+            tree.computeIfAbsent(node.key, k -> new ArrayList<>(1)).add(node);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean add(Node node) {
+            if (tree != null) {
+                addToTree(node);
+            } else if (size < TREEIFY_THRESHOLD) {
+                if (size == nodes.length) {
+                    nodes = Arrays.copyOf(nodes, Math.min(TREEIFY_THRESHOLD, size * 2));
+                }
+                nodes[size] = node;
+            } else {
+                tree = new TreeMap<>();
+                for (int i = 0; i < size; i++) {
+                    addToTree((Node) nodes[i]);
+                }
+                addToTree(node);
+                nodes = null;
+            }
+            size += 1;
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean remove(Object o) {
+            Node node = (Node) o;
+            if (tree != null) {
+                List<Node> sameOrder = tree.get(node.key);
+                if (sameOrder == null || !sameOrder.remove(node)) {
+                    return false;
+                }
+                if (sameOrder.isEmpty()) {
+                    tree.remove(node.key);
+                }
+                size -= 1;
+                if (size <= UNTREEIFY_THRESHOLD) {
+                    nodes = new Object[TREEIFY_THRESHOLD];
+                    int i = 0;
+                    for (List<Node> list : tree.values()) {
+                        for (Node n : list) {
+                            nodes[i++] = n;
+                        }
+                    }
+                    tree = null;
+                }
+                return true;
+            }
+            for (int i = 0; i < size; i++) {
+                if (nodes[i] == node) {
+                    nodes[i] = nodes[size - 1];
+                    nodes[size - 1] = null;
+                    size -= 1;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Iterator<Node> iterator() {
+            if (tree != null) {
+                return tree.values().stream().flatMap(List::stream).iterator();
+            }
+            return new Iterator<Node>() {
+                private int index = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return index < size;
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public Node next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    index += 1;
+                    return (Node) nodes[index - 1];
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package hashmap;
+
+/**
+ *  An IntIntMap61B that uses open addressing with linear probing over two
+ *  parallel int arrays, as MyProbingHashMap does over Object arrays.
+ *
+ *  An entry costs two ints, so a table at the default load factor takes
+ *  about 11 bytes per entry, where a HashMap<Integer, Integer> takes a node
+ *  and two Integer objects. A free slot holds the key 0, so the key 0 itself
+ *  is kept outside the arrays.
+ *
+ *  Does not resize down upon remove().
+ *  @author Jiayi Mao
+ */
+public class MyIntIntHashMap implements IntIntMap61B {
+
+    private static final int DEFAULT_SIZE = 16;
+    private static final double DEFAULT_MAX_LOAD = 0.75;
+    private static final int MAX_TABLE_SIZE = 1 << 30;
+
+    /* Instance Variables */
+    private int[] keys;
+    private int[] values;
+    private int size;               // including the key 0
+    private boolean hasZeroKey;
+    private int zeroValue;
+    private int shift;              // 32 - log2(table length), for Fibonacci hashing
+    private int resizeAt;           // the number of keys in the arrays past which they grow
+    private final double maxLoad;
+
+    /** Constructors */
+    public MyIntIntHashMap() {
+        this(DEFAULT_SIZE, DEFAULT_MAX_LOAD);
+    }
+
+    public MyIntIntHashMap(int initialSize) {
+        this(initialSize, DEFAULT_MAX_LOAD);
+    }
+
+    /**
+     * MyIntIntHashMap constructor that creates backing arrays with room
+     * for at least initialSize slots. The load factor (# items / # slots)
+     * should always be <= maxLoad, which must be below 1.
+     *
+     * @param initialSize initial size of backing arrays
+     * @param maxLoad maximum load factor
+     */
+    public MyIntIntHashMap(int initialSize, double maxLoad) {
+        if (initialSize < 1 || initialSize > MAX_TABLE_SIZE || maxLoad <= 0 || maxLoad >= 1) {
+            throw new IllegalArgumentException();
+        }
+        this.maxLoad = maxLoad;
+        createTable(tableSizeFor(initialSize));
+    }
+
+    @Override
+    public void clear() {
+        createTable(keys.length);
+        size = 0;
+        hasZeroKey = false;
+        zeroValue = 0;
+    }
+
+    @Override
+    public boolean containsKey(int key) {
+        return key == 0 ? hasZeroKey : findSlot(key) >= 0;
+    }
+
+    @Override
+    public int get(int key) {
+        return getOrDefault(key, 0);
+    }
+
+    @Override
+    public int getOrDefault(int key, int defaultValue) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int slot = findSlot(key);
+        return slot < 0 ? defaultValue : values[slot];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void put(int key, int value) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size += 1;
+            }
+            zeroValue = value;
+            return;
+        }
+        int slot = findSlot(key);
+        if (slot < 0) {
+            slot = insertSlot(key, slot);
+        }
+        values[slot] = value;
+    }
+
+    @Override
+    public int addTo(int key, int amount) {
+        if (key == 0) {
+            int value = (hasZeroKey ? zeroValue : 0) + amount;
+            put(0, value);
+            return value;
+        }
+        int slot = findSlot(key);
+        if (slot < 0) {
+            slot = insertSlot(key, slot);
+        }
+        values[slot] += amount;
+        return values[slot];
+    }
+
+    @Override
+    public int remove(int key) {
+        if (key == 0) {
+            int value = zeroValue;
+            if (hasZeroKey) {
+                hasZeroKey = false;
+                zeroValue = 0;
+                size -= 1;
+            }
+            return value;
+        }
+        int slot = findSlot(key);
+        if (slot < 0) {
+            return 0;
+        }
+        int value = values[slot];
+        deleteSlot(slot);
+        return value;
+    }
+
+    @Override
+    public void forEach(EntryConsumer action) {
+        if (hasZeroKey) {
+            action.accept(0, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the slot holding KEY, or, if KEY is absent, the complement
+     * (~) of the free slot where it would go. KEY is not 0.
+     */
+    private int findSlot(int key) {
+        int mask = keys.length - 1;
+        int slot = homeSlot(key);
+        int k;
+        while ((k = keys[slot]) != 0) {
+            if (k == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return ~slot;
+    }
+
+    /**
+     * Puts KEY, which findSlot did not find and answered with FREE, in a
+     * slot with the value 0, growing the table first if it is full, and
+     * returns the slot.
+     */
+    private int insertSlot(int key, int free) {
+        if (size - (hasZeroKey ? 1 : 0) >= resizeAt) {
+            if (keys.length == MAX_TABLE_SIZE) {
+                throw new IllegalStateException("map is full");
+            }
+            resize(keys.length * 2);
+            free = findSlot(key);
+        }
+        int slot = ~free;
+        keys[slot] = key;
+        values[slot] = 0;
+        size += 1;
+        return slot;
+    }
+
+    /** Returns the first slot KEY may occupy. */
+    private int homeSlot(int key) {
+        return (key * 0x9E3779B9) >>> shift;
+    }
+
+    /**
+     * Empties SLOT, then pulls each later key of the same run back into
+     * the hole unless that would move it in front of its home slot.
+     */
+    private void deleteSlot(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (keys[next] != 0) {
+            int home = homeSlot(keys[next]);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = 0;
+        values[hole] = 0;
+        size -= 1;
+    }
+
+    /** Rebuilds the arrays with TABLESIZE slots and reinserts every entry. */
+    private void resize(int tableSize) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        createTable(tableSize);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = ~findSlot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /** Allocates empty arrays of TABLESIZE slots, a power of two. */
+    private void createTable(int tableSize) {
+        keys = new int[tableSize];
+        values = new int[tableSize];
+        shift = Integer.numberOfLeadingZeros(tableSize) + 1;
+        resizeAt = Math.max(1, Math.min(tableSize - 1, (int) (tableSize * maxLoad)));
+    }
+
+    /** Returns the smallest power of two that is at least N, and at least 2. */
+    private static int tableSizeFor(int n) {
+        int tableSize = 2;
+        while (tableSize < n) {
+            tableSize *= 2;
+        }
+        return tableSize;
+    }
+}
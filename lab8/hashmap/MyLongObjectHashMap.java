@@ -0,0 +1,229 @@
+package hashmap;
+
+/**
+ *  A LongObjectMap61B that uses open addressing with linear probing over a
+ *  long array of keys and a parallel array of values, as MyProbingHashMap
+ *  does over Object arrays.
+ *
+ *  Keys are never boxed, so an entry costs a long and a reference rather
+ *  than a node and a Long object. A free slot holds the key 0, so the key
+ *  0 itself is kept outside the arrays.
+ *
+ *  Does not resize down upon remove().
+ *  @author Jiayi Mao
+ */
+public class MyLongObjectHashMap<V> implements LongObjectMap61B<V> {
+
+    private static final int DEFAULT_SIZE = 16;
+    private static final double DEFAULT_MAX_LOAD = 0.75;
+    private static final int MAX_TABLE_SIZE = 1 << 30;
+
+    /* Instance Variables */
+    private long[] keys;
+    private Object[] values;
+    private int size;               // including the key 0
+    private boolean hasZeroKey;
+    private V zeroValue;
+    private int shift;              // 64 - log2(table length), for Fibonacci hashing
+    private int resizeAt;           // the number of keys in the arrays past which they grow
+    private final double maxLoad;
+
+    /** Constructors */
+    public MyLongObjectHashMap() {
+        this(DEFAULT_SIZE, DEFAULT_MAX_LOAD);
+    }
+
+    public MyLongObjectHashMap(int initialSize) {
+        this(initialSize, DEFAULT_MAX_LOAD);
+    }
+
+    /**
+     * MyLongObjectHashMap constructor that creates backing arrays with room
+     * for at least initialSize slots. The load factor (# items / # slots)
+     * should always be <= maxLoad, which must be below 1.
+     *
+     * @param initialSize initial size of backing arrays
+     * @param maxLoad maximum load factor
+     */
+    public MyLongObjectHashMap(int initialSize, double maxLoad) {
+        if (initialSize < 1 || initialSize > MAX_TABLE_SIZE || maxLoad <= 0 || maxLoad >= 1) {
+            throw new IllegalArgumentException();
+        }
+        this.maxLoad = maxLoad;
+        createTable(tableSizeFor(initialSize));
+    }
+
+    @Override
+    public void clear() {
+        createTable(keys.length);
+        size = 0;
+        hasZeroKey = false;
+        zeroValue = null;
+    }
+
+    @Override
+    public boolean containsKey(long key) {
+        return key == 0 ? hasZeroKey : findSlot(key) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (key == 0) {
+            return zeroValue;
+        }
+        int slot = findSlot(key);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void put(long key, V value) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size += 1;
+            }
+            zeroValue = value;
+            return;
+        }
+        int slot = findSlot(key);
+        if (slot < 0) {
+            slot = insertSlot(key, slot);
+        }
+        values[slot] = value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        if (key == 0) {
+            V value = zeroValue;
+            if (hasZeroKey) {
+                hasZeroKey = false;
+                zeroValue = null;
+                size -= 1;
+            }
+            return value;
+        }
+        int slot = findSlot(key);
+        if (slot < 0) {
+            return null;
+        }
+        V value = (V) values[slot];
+        deleteSlot(slot);
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> action) {
+        if (hasZeroKey) {
+            action.accept(0, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                action.accept(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the slot holding KEY, or, if KEY is absent, the complement
+     * (~) of the free slot where it would go. KEY is not 0.
+     */
+    private int findSlot(long key) {
+        int mask = keys.length - 1;
+        int slot = homeSlot(key);
+        long k;
+        while ((k = keys[slot]) != 0) {
+            if (k == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return ~slot;
+    }
+
+    /**
+     * Puts KEY, which findSlot did not find and answered with FREE, in a
+     * slot with the value null, growing the table first if it is full, and
+     * returns the slot.
+     */
+    private int insertSlot(long key, int free) {
+        if (size - (hasZeroKey ? 1 : 0) >= resizeAt) {
+            if (keys.length == MAX_TABLE_SIZE) {
+                throw new IllegalStateException("map is full");
+            }
+            resize(keys.length * 2);
+            free = findSlot(key);
+        }
+        int slot = ~free;
+        keys[slot] = key;
+        values[slot] = null;
+        size += 1;
+        return slot;
+    }
+
+    /** Returns the first slot KEY may occupy. */
+    private int homeSlot(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    /**
+     * Empties SLOT, then pulls each later key of the same run back into
+     * the hole unless that would move it in front of its home slot.
+     */
+    private void deleteSlot(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (keys[next] != 0) {
+            int home = homeSlot(keys[next]);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = 0;
+        values[hole] = null;
+        size -= 1;
+    }
+
+    /** Rebuilds the arrays with TABLESIZE slots and reinserts every entry. */
+    private void resize(int tableSize) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        createTable(tableSize);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = ~findSlot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /** Allocates empty arrays of TABLESIZE slots, a power of two. */
+    private void createTable(int tableSize) {
+        keys = new long[tableSize];
+        values = new Object[tableSize];
+        shift = Long.numberOfLeadingZeros(tableSize) + 1;
+        resizeAt = Math.max(1, Math.min(tableSize - 1, (int) (tableSize * maxLoad)));
+    }
+
+    /** Returns the smallest power of two that is at least N, and at least 2. */
+    private static int tableSizeFor(int n) {
+        int tableSize = 2;
+        while (tableSize < n) {
+            tableSize *= 2;
+        }
+        return tableSize;
+    }
+}
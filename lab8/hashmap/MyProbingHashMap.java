@@ -0,0 +1,276 @@
+package hashmap;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ *  A hash table-backed Map implementation that uses open addressing with
+ *  linear probing instead of buckets.
+ *
+ *  Keys and values live in two parallel arrays, so an entry costs two array
+ *  slots rather than a Node plus its share of a bucket collection, and a
+ *  lookup walks consecutive slots of one array instead of chasing pointers.
+ *  A key is stored in the first free slot at or after its home slot. When a
+ *  key is removed, the keys after it in the same run are shifted back into
+ *  the hole (backward-shift deletion), so no tombstones are left behind and
+ *  lookups never slow down after many removals.
+ *
+ *  Assumes null keys will never be inserted, and does not resize down upon remove().
+ *  @author Jiayi Mao
+ */
+public class MyProbingHashMap<K, V> implements Map61B<K, V> {
+
+    private static final int DEFAULT_SIZE = 16;
+    private static final double DEFAULT_MAX_LOAD = 0.75;
+    private static final int MAX_TABLE_SIZE = 1 << 30;
+
+    /* Instance Variables */
+    private Object[] keys;
+    private Object[] values;
+    private int size;
+    private int shift;          // 32 - log2(table length), for Fibonacci hashing
+    private int resizeAt;       // the size past which the table grows
+    private final double maxLoad;
+
+    /** Constructors */
+    public MyProbingHashMap() {
+        this(DEFAULT_SIZE, DEFAULT_MAX_LOAD);
+    }
+
+    public MyProbingHashMap(int initialSize) {
+        this(initialSize, DEFAULT_MAX_LOAD);
+    }
+
+    /**
+     * MyProbingHashMap constructor that creates backing arrays with room
+     * for at least initialSize slots. The load factor (# items / # slots)
+     * should always be <= maxLoad, which must be below 1 since every item
+     * takes a slot of its own.
+     *
+     * @param initialSize initial size of backing arrays
+     * @param maxLoad maximum load factor
+     */
+    public MyProbingHashMap(int initialSize, double maxLoad) {
+        if (initialSize < 1 || initialSize > MAX_TABLE_SIZE || maxLoad <= 0 || maxLoad >= 1) {
+            throw new IllegalArgumentException();
+        }
+        this.maxLoad = maxLoad;
+        createTable(tableSizeFor(initialSize));
+    }
+
+    @Override
+    public void clear() {
+        createTable(keys.length);
+        size = 0;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return findSlot(key) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        int slot = findSlot(key);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        int slot = findSlot(key);
+        if (slot >= 0) {
+            values[slot] = value;
+            return;
+        }
+        if (size >= resizeAt) {
+            if (keys.length == MAX_TABLE_SIZE) {
+                throw new IllegalStateException("map is full");
+            }
+            resize(keys.length * 2);
+            slot = findSlot(key);
+        }
+        slot = ~slot;
+        keys[slot] = key;
+        values[slot] = value;
+        size += 1;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Set<K> keySet() {
+        Set<K> result = new HashSet<>();
+        for (Object key : keys) {
+            if (key != null) {
+                result.add((K) key);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(K key) {
+        int slot = findSlot(key);
+        if (slot < 0) {
+            return null;
+        }
+        V value = (V) values[slot];
+        deleteSlot(slot);
+        return value;
+    }
+
+    @Override
+    public V remove(K key, V value) {
+        int slot = findSlot(key);
+        if (slot < 0) {
+            return null;
+        }
+        Object current = values[slot];
+        if (value == null ? current != null : !value.equals(current)) {
+            return null;
+        }
+        deleteSlot(slot);
+        return value;
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return new KeyIterator();
+    }
+
+    /** Grows the arrays once for the whole batch, then puts each entry. */
+    @Override
+    public void putAll(List<? extends K> batchKeys, List<? extends V> batchValues) {
+        if (batchKeys.size() != batchValues.size()) {
+            throw new IllegalArgumentException("keys and values differ in length");
+        }
+        int expected = size + batchKeys.size();
+        int tableSize = keys.length;
+        while (expected > Math.min(tableSize - 1, (int) (tableSize * maxLoad))
+                && tableSize < MAX_TABLE_SIZE) {
+            tableSize *= 2;
+        }
+        if (tableSize > keys.length) {
+            resize(tableSize);
+        }
+        Map61B.super.putAll(batchKeys, batchValues);
+    }
+
+    /**
+     * Returns the slot holding KEY, or, if KEY is absent, the complement
+     * (~) of the free slot where it would go.
+     */
+    private int findSlot(Object key) {
+        int mask = keys.length - 1;
+        int slot = homeSlot(key);
+        Object k;
+        while ((k = keys[slot]) != null) {
+            if (k.equals(key)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return ~slot;
+    }
+
+    /**
+     * Returns the first slot KEY may occupy. Multiplying by 2^32 divided by
+     * the golden ratio and keeping the top bits spreads hash codes that
+     * differ only in their high bits, or in steps of the table length.
+     */
+    private int homeSlot(Object key) {
+        return (key.hashCode() * 0x9E3779B9) >>> shift;
+    }
+
+    /**
+     * Empties SLOT, then pulls each later key of the same run back into
+     * the hole unless that would move it in front of its home slot.
+     */
+    private void deleteSlot(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (keys[next] != null) {
+            int home = homeSlot(keys[next]);
+            // the key at NEXT may fill the hole only if its home is not in (hole, next]
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = null;
+        values[hole] = null;
+        size -= 1;
+    }
+
+    /** Rebuilds the arrays with TABLESIZE slots and reinserts every entry. */
+    private void resize(int tableSize) {
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        createTable(tableSize);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = ~findSlot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /** Allocates empty arrays of TABLESIZE slots, a power of two. */
+    private void createTable(int tableSize) {
+        keys = new Object[tableSize];
+        values = new Object[tableSize];
+        shift = Integer.numberOfLeadingZeros(tableSize) + 1;
+        resizeAt = Math.min(tableSize - 1, (int) (tableSize * maxLoad));
+    }
+
+    /** Returns the smallest power of two that is at least N, and at least 2. */
+    private static int tableSizeFor(int n) {
+        int tableSize = 2;
+        while (tableSize < n) {
+            tableSize *= 2;
+        }
+        return tableSize;
+    }
+
+    /** An iterator over the keys, in slot order. */
+    private class KeyIterator implements Iterator<K> {
+        private int slot = advance(0);
+
+        @Override
+        public boolean hasNext() {
+            return slot < keys.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public K next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            K key = (K) keys[slot];
+            slot = advance(slot + 1);
+            return key;
+        }
+
+        /** Returns the first occupied slot at or after FROM, or the table length. */
+        private int advance(int from) {
+            while (from < keys.length && keys[from] == null) {
+                from += 1;
+            }
+            return from;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package hashmap;
+
+import java.security.SecureRandom;
+
+/**
+ * A keyed hash function for hash table keys. String keys are hashed with
+ * SipHash-1-3 under a 128-bit key, so without that key nobody can compute
+ * which strings will collide, unlike String.hashCode(), for which large
+ * sets of colliding strings are easy to build. Other keys have their
+ * hashCode() mixed with the key, which spreads poor hash codes over the
+ * table but cannot separate keys whose hash codes are equal.
+ *
+ * Give each map its own random() instance, so that keys colliding in one
+ * map tell an attacker nothing about another.
+ *
+ * @author Jiayi Mao
+ */
+public class SeededHash {
+    private static final SecureRandom SEEDS = new SecureRandom();
+
+    private final long k0;
+    private final long k1;
+
+    /** A hash function under the key K0, K1; equal keys give equal functions. */
+    public SeededHash(long k0, long k1) {
+        this.k0 = k0;
+        this.k1 = k1;
+    }
+
+    /** Returns a hash function under a fresh random key. */
+    public static SeededHash random() {
+        return new SeededHash(SEEDS.nextLong(), SEEDS.nextLong());
+    }
+
+    /** Returns the first half of the key, so that a map on disk can keep it. */
+    long getK0() {
+        return k0;
+    }
+
+    /** Returns the second half of the key. */
+    long getK1() {
+        return k1;
+    }
+
+    /** Returns the hash of KEY, which is not null. */
+    public int hash(Object key) {
+        long h;
+        if (key instanceof String) {
+            h = hashString((String) key);
+        } else {
+            h = mix(key.hashCode() * 0x9E3779B97F4A7C15L ^ k0);
+        }
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Returns the SipHash-1-3 of the UTF-16LE encoding of S, four chars to
+     * a word, without encoding S into a byte array first.
+     */
+    long hashString(String s) {
+        Sip sip = new Sip(k0, k1);
+        int length = s.length();
+        int end = length & ~3;
+        for (int i = 0; i < end; i += 4) {
+            sip.compress(s.charAt(i) | (long) s.charAt(i + 1) << 16
+                    | (long) s.charAt(i + 2) << 32 | (long) s.charAt(i + 3) << 48);
+        }
+        long last = (long) (2 * length) << 56;
+        for (int i = end; i < length; i++) {
+            last |= (long) s.charAt(i) << (16 * (i - end));
+        }
+        return sip.finish(last);
+    }
+
+    /** Returns the SipHash-1-3 of LENGTH bytes of DATA from OFFSET. */
+    public long hashBytes(byte[] data, int offset, int length) {
+        Sip sip = new Sip(k0, k1);
+        int end = offset + (length & ~7);
+        for (int i = offset; i < end; i += 8) {
+            long m = 0;
+            for (int j = 7; j >= 0; j--) {
+                m = m << 8 | (data[i + j] & 0xffL);
+            }
+            sip.compress(m);
+        }
+        long last = (long) length << 56;
+        for (int i = end; i < offset + length; i++) {
+            last |= (data[i] & 0xffL) << (8 * (i - end));
+        }
+        return sip.finish(last);
+    }
+
+    /** The finalizer of MurmurHash3, after which every input bit affects every output bit. */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /** The state of one SipHash computation. */
+    private static class Sip {
+        private long v0;
+        private long v1;
+        private long v2;
+        private long v3;
+
+        Sip(long k0, long k1) {
+            v0 = k0 ^ 0x736f6d6570736575L;
+            v1 = k1 ^ 0x646f72616e646f6dL;
+            v2 = k0 ^ 0x6c7967656e657261L;
+            v3 = k1 ^ 0x7465646279746573L;
+        }
+
+        /** Takes in the next eight bytes M, little-endian, with one round. */
+        void compress(long m) {
+            v3 ^= m;
+            round();
+            v0 ^= m;
+        }
+
+        /** Takes in the last word LAST and returns the hash, after three rounds. */
+        long finish(long last) {
+            compress(last);
+            v2 ^= 0xff;
+            round();
+            round();
+            round();
+            return v0 ^ v1 ^ v2 ^ v3;
+        }
+
+        private void round() {
+            v0 += v1;
+            v1 = Long.rotateLeft(v1, 13);
+            v1 ^= v0;
+            v0 = Long.rotateLeft(v0, 32);
+            v2 += v3;
+            v3 = Long.rotateLeft(v3, 16);
+            v3 ^= v2;
+            v0 += v3;
+            v3 = Long.rotateLeft(v3, 21);
+            v3 ^= v0;
+            v2 += v1;
+            v1 = Long.rotateLeft(v1, 17);
+            v1 ^= v2;
+            v2 = Long.rotateLeft(v2, 32);
+        }
+    }
+}
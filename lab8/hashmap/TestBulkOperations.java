@@ -0,0 +1,102 @@
+package hashmap;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+/** Tests of putAll, getAll and removeAll, against java.util.HashMap. */
+public class TestBulkOperations {
+
+    @Test
+    public void myHashMapTest() {
+        bulkTest(new MyHashMap<>());
+        bulkTest(new MyHashMap<>(1, 0.75, true));
+        bulkTest(new MyHashMap<>(3, 2.0, false, SeededHash.random()));
+        bulkTest(new MyHashMapALBuckets<>());
+        bulkTest(new MyHashMapTSBuckets<>());
+        bulkTest(new MyHashMapPQBuckets<>());
+        bulkTest(new MyHashMapAdaptiveBuckets<>());
+    }
+
+    @Test
+    public void otherMapsTest() {
+        bulkTest(new MyProbingHashMap<>(1, 0.5));
+        bulkTest(new MyConcurrentHashMap<>());
+    }
+
+    /** A later value for the same key in one batch wins, as with put(). */
+    @Test
+    public void duplicateKeysTest() {
+        MyHashMap<String, Integer> b = new MyHashMap<>();
+        b.putAll(Arrays.asList("a", "b", "a", "c", "a"), Arrays.asList(1, 2, 3, 4, 5));
+        assertEquals(3, b.size());
+        assertEquals(5, b.get("a").intValue());
+        assertEquals(Arrays.asList(5, null, 4), b.getAll(Arrays.asList("a", "d", "c")));
+        assertEquals(1, b.removeAll(Arrays.asList("a", "a", "d")));
+        assertEquals(2, b.size());
+    }
+
+    /** The bulk operations work in the middle of an incremental resize. */
+    @Test
+    public void duringResizeTest() {
+        MyHashMap<String, Integer> b = new MyHashMap<>(16, 0.75, true);
+        for (int i = 0; i < 13; i++) {
+            b.put("hi" + i, i);
+        }
+        assertEquals(Arrays.asList(0, 12, null), b.getAll(Arrays.asList("hi0", "hi12", "hi13")));
+        assertEquals(2, b.removeAll(Arrays.asList("hi0", "hi1")));
+        assertEquals(11, b.size());
+        assertFalse(b.containsKey("hi0"));
+        assertTrue(b.containsKey("hi2"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void lengthMismatchTest() {
+        new MyHashMap<String, Integer>().putAll(Arrays.asList("a", "b"), Arrays.asList(1));
+    }
+
+    /** Batches of random keys, some already present, against HashMap. */
+    private static void bulkTest(Map61B<Integer, Integer> b) {
+        Random random = new Random(61);
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        for (int round = 0; round < 20; round++) {
+            List<Integer> keys = randomKeys(random, 2000);
+            List<Integer> values = randomKeys(random, 2000);
+            b.putAll(keys, values);
+            for (int i = 0; i < keys.size(); i++) {
+                expected.put(keys.get(i), values.get(i));
+            }
+            assertEquals(expected.size(), b.size());
+
+            List<Integer> lookups = randomKeys(random, 1000);
+            List<Integer> found = b.getAll(lookups);
+            for (int i = 0; i < lookups.size(); i++) {
+                assertEquals(expected.get(lookups.get(i)), found.get(i));
+            }
+
+            List<Integer> removals = randomKeys(random, 500);
+            int removed = 0;
+            for (Integer key : removals) {
+                if (expected.remove(key) != null) {
+                    removed += 1;
+                }
+            }
+            assertEquals(removed, b.removeAll(removals));
+            assertEquals(expected.size(), b.size());
+        }
+        assertEquals(expected.keySet(), b.keySet());
+    }
+
+    private static List<Integer> randomKeys(Random random, int n) {
+        List<Integer> keys = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            keys.add(random.nextInt(20000));
+        }
+        return keys;
+    }
+}
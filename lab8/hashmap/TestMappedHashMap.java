@@ -0,0 +1,87 @@
+package hashmap;
+
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/** Tests of MappedHashMap, including reopening its files. */
+public class TestMappedHashMap {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void basicTest() throws Exception {
+        try (MappedHashMap b = new MappedHashMap(folder.newFolder())) {
+            assertNull(b.get(bytes("hi")));
+            b.put(bytes("hi"), bytes("there"));
+            b.put(bytes(""), bytes(""));
+            assertArrayEquals(bytes("there"), b.get(bytes("hi")));
+            assertArrayEquals(bytes(""), b.get(bytes("")));
+            b.put(bytes("hi"), bytes("THERE"));
+            b.put(bytes("hi"), bytes("a longer value"));
+            assertArrayEquals(bytes("a longer value"), b.get(bytes("hi")));
+            assertEquals(2, b.size());
+            assertNull(b.remove(bytes("hi"), bytes("other")));
+            assertArrayEquals(bytes("a longer value"), b.remove(bytes("hi")));
+            assertFalse(b.containsKey(bytes("hi")));
+            assertEquals(1, b.size());
+            b.clear();
+            assertEquals(0, b.size());
+            assertFalse(b.containsKey(bytes("")));
+        }
+    }
+
+    /** Random puts and removes through resizes and small segments, then a reopen. */
+    @Test
+    public void randomizedReopenTest() throws Exception {
+        File directory = folder.newFolder();
+        Random random = new Random(61);
+        Map<String, String> expected = new HashMap<>();
+        try (MappedHashMap b = new MappedHashMap(directory, 4096)) {
+            for (int i = 0; i < 20000; i++) {
+                String key = "key" + random.nextInt(3000);
+                if (random.nextInt(4) == 0) {
+                    String removed = expected.remove(key);
+                    byte[] value = b.remove(bytes(key));
+                    assertEquals(removed, value == null ? null : new String(value, StandardCharsets.UTF_8));
+                } else {
+                    String value = "value" + random.nextInt(1 << random.nextInt(20));
+                    expected.put(key, value);
+                    b.put(bytes(key), bytes(value));
+                }
+                assertEquals(expected.size(), b.size());
+            }
+        }
+        try (MappedHashMap b = new MappedHashMap(directory)) {
+            assertEquals(expected.size(), b.size());
+            for (Map.Entry<String, String> entry : expected.entrySet()) {
+                assertArrayEquals(bytes(entry.getValue()), b.get(bytes(entry.getKey())));
+            }
+            int keys = 0;
+            for (byte[] key : b) {
+                assertTrue(expected.containsKey(new String(key, StandardCharsets.UTF_8)));
+                keys += 1;
+            }
+            assertEquals(expected.size(), keys);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void entryLargerThanSegmentTest() throws Exception {
+        try (MappedHashMap b = new MappedHashMap(folder.newFolder(), 64)) {
+            b.put(bytes("key"), new byte[64]);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package hashmap;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/** Tests of MyConcurrentHashMap, alone and under many threads. */
+public class TestMyConcurrentHashMap {
+
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 50000;
+
+    @Test
+    public void sequentialTest() {
+        MyConcurrentHashMap<String, Integer> b = new MyConcurrentHashMap<>();
+        for (int i = 0; i < 455; i++) {
+            b.put("hi" + i, i);
+        }
+        assertEquals(455, b.size());
+        b.put("hi3", 30);
+        assertEquals(455, b.size());
+        assertEquals(30, b.get("hi3").intValue());
+        assertNull(b.remove("hi4", 5));
+        assertEquals(4, b.remove("hi4", 4).intValue());
+        assertEquals(5, b.remove("hi5").intValue());
+        assertFalse(b.containsKey("hi5"));
+        assertEquals(453, b.keySet().size());
+        b.clear();
+        assertEquals(0, b.size());
+        assertFalse(b.containsKey("hi3"));
+    }
+
+    /** Threads put disjoint keys through many resizes while readers look at the keys already in. */
+    @Test
+    public void concurrentPutTest() throws InterruptedException {
+        MyConcurrentHashMap<Integer, Integer> b = new MyConcurrentHashMap<>(1);
+        AtomicBoolean failed = new AtomicBoolean();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int base = t * PER_THREAD;
+            threads.add(new Thread(() -> {
+                for (int i = base; i < base + PER_THREAD; i++) {
+                    b.put(i, i);
+                    // every key this thread put so far must stay visible
+                    int earlier = base + (i - base) / 2;
+                    if (b.get(earlier) == null || b.get(earlier) != earlier) {
+                        failed.set(true);
+                    }
+                }
+            }));
+        }
+        runAll(threads);
+        assertFalse(failed.get());
+        assertEquals(THREADS * PER_THREAD, b.size());
+        for (int i = 0; i < THREADS * PER_THREAD; i++) {
+            assertEquals(i, b.get(i).intValue());
+        }
+        assertEquals(THREADS * PER_THREAD, b.keySet().size());
+    }
+
+    /** Threads add and remove their own keys; only the ones each kept must remain. */
+    @Test
+    public void concurrentPutRemoveTest() throws InterruptedException {
+        MyConcurrentHashMap<Integer, Integer> b = new MyConcurrentHashMap<>(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int base = t * PER_THREAD;
+            threads.add(new Thread(() -> {
+                for (int i = base; i < base + PER_THREAD; i++) {
+                    b.put(i, i);
+                    if (i % 3 == 0) {
+                        b.remove(i);
+                    }
+                }
+            }));
+        }
+        runAll(threads);
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < THREADS * PER_THREAD; i++) {
+            if (i % 3 != 0) {
+                expected.add(i);
+            }
+        }
+        assertEquals(expected.size(), b.size());
+        assertEquals(expected, b.keySet());
+    }
+
+    private static void runAll(List<Thread> threads) throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package hashmap;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Tests of MyHashMapAdaptiveBuckets, whose long buckets turn into trees. */
+public class TestMyHashMapAdaptiveBuckets {
+
+    @Test
+    public void sanityTests() {
+        TestMyHashMap.sanityClearTest(new MyHashMapAdaptiveBuckets<>());
+        TestMyHashMap.sanityContainsKeyTest(new MyHashMapAdaptiveBuckets<>());
+        TestMyHashMap.sanityGetTest(new MyHashMapAdaptiveBuckets<>());
+        TestMyHashMap.sanitySizeTest(new MyHashMapAdaptiveBuckets<>());
+        TestMyHashMap.sanityPutTest(new MyHashMapAdaptiveBuckets<>());
+        TestMyHashMap.sanityKeySetTest(new MyHashMapAdaptiveBuckets<>());
+        TestMyHashMap.functionalityTest(new MyHashMapAdaptiveBuckets<>(),
+                new MyHashMapAdaptiveBuckets<>());
+    }
+
+    /** Every key shares one hash code, so one bucket grows into a tree and shrinks back. */
+    @Test
+    public void collidingKeysTest() {
+        List<String> keys = collidingStrings(10);
+        assertEquals(keys.get(0).hashCode(), keys.get(keys.size() - 1).hashCode());
+        MyHashMapAdaptiveBuckets<String, Integer> b = new MyHashMapAdaptiveBuckets<>();
+        for (int i = 0; i < keys.size(); i++) {
+            b.put(keys.get(i), i);
+        }
+        assertEquals(keys.size(), b.size());
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(i, b.get(keys.get(i)).intValue());
+        }
+        for (int i = 0; i < keys.size() - 3; i++) {
+            assertEquals(i, b.remove(keys.get(i)).intValue());
+            assertFalse(b.containsKey(keys.get(i)));
+        }
+        assertEquals(3, b.size());
+        for (int i = keys.size() - 3; i < keys.size(); i++) {
+            assertEquals(i, b.get(keys.get(i)).intValue());
+        }
+    }
+
+    /**
+     * Keys that compare as equal without being equal keep separate entries,
+     * in the array and after the bucket becomes a tree and back.
+     */
+    @Test
+    public void compareEqualKeysTest() {
+        MyHashMapAdaptiveBuckets<PairedKey, Integer> b = new MyHashMapAdaptiveBuckets<>();
+        for (int i = 0; i < 9; i++) {
+            b.put(new PairedKey(i), i);
+        }
+        assertEquals(9, b.size());
+        assertEquals(9, b.keySet().size());
+        for (int i = 0; i < 9; i++) {
+            assertEquals(i, b.get(new PairedKey(i)).intValue());
+        }
+        b.put(new PairedKey(3), 30);
+        assertEquals(9, b.size());
+        assertEquals(30, b.get(new PairedKey(3)).intValue());
+        assertEquals(2, b.get(new PairedKey(2)).intValue());
+
+        assertEquals(30, b.remove(new PairedKey(3)).intValue());
+        assertFalse(b.containsKey(new PairedKey(3)));
+        assertEquals(2, b.get(new PairedKey(2)).intValue());
+        assertNull(b.remove(new PairedKey(9)));
+        for (int i = 4; i < 6; i++) {
+            assertEquals(i, b.remove(new PairedKey(i)).intValue());
+        }
+        assertEquals(6, b.size());
+        assertEquals(6, b.keySet().size());
+        for (int i : new int[]{0, 1, 2, 6, 7, 8}) {
+            assertEquals(i, b.get(new PairedKey(i)).intValue());
+        }
+    }
+
+    /** A key that always collides, and compares equal to the key of its pair, ID / 2. */
+    private static class PairedKey implements Comparable<PairedKey> {
+        private final int id;
+
+        PairedKey(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(PairedKey other) {
+            return Integer.compare(id / 2, other.id / 2);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof PairedKey && ((PairedKey) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 0;
+        }
+    }
+
+    /** Returns the 2^N strings of N blocks each "Aa" or "BB", which all hash alike. */
+    static List<String> collidingStrings(int n) {
+        List<String> result = new ArrayList<>();
+        result.add("");
+        for (int i = 0; i < n; i++) {
+            List<String> longer = new ArrayList<>();
+            for (String s : result) {
+                longer.add(s + "Aa");
+                longer.add(s + "BB");
+            }
+            result = longer;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,61 @@
+package hashmap;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+/** Tests of MyHashMap with incremental resizing. */
+public class TestMyHashMapIncremental {
+
+    private static <K, V> MyHashMap<K, V> incremental() {
+        return new MyHashMap<>(16, 0.75, true);
+    }
+
+    @Test
+    public void sanityTests() {
+        TestMyHashMap.sanityClearTest(incremental());
+        TestMyHashMap.sanityContainsKeyTest(incremental());
+        TestMyHashMap.sanityGetTest(incremental());
+        TestMyHashMap.sanitySizeTest(incremental());
+        TestMyHashMap.sanityPutTest(incremental());
+        TestMyHashMap.sanityKeySetTest(incremental());
+        TestMyHashMap.functionalityTest(incremental(), incremental());
+    }
+
+    /** Random puts and removes, many of them in the middle of a resize. */
+    @Test
+    public void randomizedTest() {
+        Random random = new Random(61);
+        MyHashMap<Integer, Integer> b = new MyHashMap<>(1, 0.75, true);
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(i / 4 + 10);
+            if (random.nextInt(4) == 0) {
+                assertEquals(expected.remove(key), b.remove(key));
+            } else {
+                expected.put(key, i);
+                b.put(key, i);
+            }
+            assertEquals(expected.size(), b.size());
+            assertEquals(expected.get(key), b.get(key));
+        }
+        assertEquals(expected.keySet(), b.keySet());
+    }
+
+    /** Buckets are created as keys arrive, in the subclasses' types too. */
+    @Test
+    public void lazyBucketsTest() {
+        MyHashMap<String, Integer> b = new MyHashMapTSBuckets<>(1, 0.5);
+        for (int i = 0; i < 1000; i++) {
+            b.put("hi" + i, i);
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            assertEquals(i, b.remove("hi" + i).intValue());
+        }
+        assertEquals(500, b.size());
+        assertFalse(b.containsKey("hi10"));
+        assertTrue(b.containsKey("hi11"));
+    }
+}
@@ -0,0 +1,103 @@
+package hashmap;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/** Tests of the open-addressing MyProbingHashMap. */
+public class TestMyProbingHashMap {
+
+    @Test
+    public void basicTest() {
+        MyProbingHashMap<String, Integer> b = new MyProbingHashMap<>();
+        assertEquals(0, b.size());
+        assertNull(b.get("hi"));
+        for (int i = 0; i < 455; i++) {
+            b.put("hi" + i, i);
+            assertTrue(b.containsKey("hi" + i));
+        }
+        assertEquals(455, b.size());
+        b.put("hi3", 30);
+        assertEquals(455, b.size());
+        assertEquals(30, b.get("hi3").intValue());
+        b.clear();
+        assertEquals(0, b.size());
+        assertFalse(b.containsKey("hi3"));
+    }
+
+    /** Keys whose hash codes are all equal form one run that removals must keep intact. */
+    @Test
+    public void removeFromCollidingRunTest() {
+        MyProbingHashMap<Collider, Integer> b = new MyProbingHashMap<>(64);
+        for (int i = 0; i < 20; i++) {
+            b.put(new Collider(i), i);
+        }
+        assertEquals(Integer.valueOf(5), b.remove(new Collider(5)));
+        assertNull(b.remove(new Collider(6), 7));
+        assertEquals(Integer.valueOf(6), b.remove(new Collider(6), 6));
+        assertEquals(18, b.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i != 5 && i != 6, b.containsKey(new Collider(i)));
+        }
+    }
+
+    @Test
+    public void keySetAndIteratorTest() {
+        MyProbingHashMap<Integer, Integer> b = new MyProbingHashMap<>();
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < 1000; i += 3) {
+            b.put(i, i);
+            expected.add(i);
+        }
+        assertEquals(expected, b.keySet());
+        Set<Integer> iterated = new HashSet<>();
+        for (int key : b) {
+            iterated.add(key);
+        }
+        assertEquals(expected, iterated);
+    }
+
+    /** Random puts and removes on a small key range, checked against java.util.HashMap. */
+    @Test
+    public void randomizedTest() {
+        Random random = new Random(61);
+        MyProbingHashMap<Integer, Integer> b = new MyProbingHashMap<>(2, 0.9);
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(500);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), b.remove(key));
+            } else {
+                expected.put(key, i);
+                b.put(key, i);
+            }
+            assertEquals(expected.size(), b.size());
+        }
+        for (int key = 0; key < 500; key++) {
+            assertEquals(expected.get(key), b.get(key));
+        }
+    }
+
+    /** A key whose hash code ignores its value. */
+    private static class Collider {
+        private final int value;
+
+        Collider(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Collider && ((Collider) o).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package hashmap;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/** Tests of MyIntIntHashMap and MyLongObjectHashMap. */
+public class TestPrimitiveMaps {
+
+    @Test
+    public void intIntBasicTest() {
+        MyIntIntHashMap b = new MyIntIntHashMap();
+        assertEquals(0, b.size());
+        assertEquals(0, b.get(7));
+        assertEquals(-1, b.getOrDefault(7, -1));
+        b.put(7, 70);
+        b.put(0, 5);
+        b.put(-3, 0);
+        assertEquals(3, b.size());
+        assertEquals(70, b.get(7));
+        assertEquals(5, b.get(0));
+        assertTrue(b.containsKey(-3));
+        assertEquals(0, b.getOrDefault(-3, -1));
+        assertEquals(5, b.remove(0));
+        assertFalse(b.containsKey(0));
+        assertEquals(2, b.size());
+        b.clear();
+        assertEquals(0, b.size());
+        assertFalse(b.containsKey(7));
+    }
+
+    @Test
+    public void intIntCountingTest() {
+        MyIntIntHashMap b = new MyIntIntHashMap(2);
+        for (int i = 0; i < 10000; i++) {
+            b.addTo(i % 100, 1);
+        }
+        assertEquals(100, b.size());
+        int[] total = new int[1];
+        b.forEach((key, value) -> {
+            assertEquals(100, value);
+            total[0] += value;
+        });
+        assertEquals(10000, total[0]);
+    }
+
+    /** Random puts and removes, including the key 0, checked against java.util.HashMap. */
+    @Test
+    public void intIntRandomizedTest() {
+        Random random = new Random(61);
+        MyIntIntHashMap b = new MyIntIntHashMap(2, 0.9);
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(500) - 250;
+            if (random.nextInt(3) == 0) {
+                Integer removed = expected.remove(key);
+                assertEquals(removed == null ? 0 : removed, b.remove(key));
+            } else {
+                expected.put(key, i);
+                b.put(key, i);
+            }
+            assertEquals(expected.size(), b.size());
+        }
+        Map<Integer, Integer> seen = new HashMap<>();
+        b.forEach(seen::put);
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    public void longObjectBasicTest() {
+        MyLongObjectHashMap<String> b = new MyLongObjectHashMap<>();
+        assertNull(b.get(1L << 40));
+        b.put(1L << 40, "big");
+        b.put(0, "zero");
+        b.put(-1, null);
+        assertEquals(3, b.size());
+        assertEquals("big", b.get(1L << 40));
+        assertEquals("zero", b.get(0));
+        assertTrue(b.containsKey(-1));
+        assertNull(b.get(-1));
+        assertEquals("big", b.remove(1L << 40));
+        assertNull(b.remove(1L << 40));
+        assertEquals(2, b.size());
+    }
+
+    /** Keys differing only in their high bits must not all share a home slot. */
+    @Test
+    public void longObjectRandomizedTest() {
+        Random random = new Random(61);
+        MyLongObjectHashMap<Integer> b = new MyLongObjectHashMap<>();
+        HashMap<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 100000; i++) {
+            long key = (long) random.nextInt(500) << 32;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), b.remove(key));
+            } else {
+                expected.put(key, i);
+                b.put(key, i);
+            }
+            assertEquals(expected.size(), b.size());
+        }
+        Map<Long, Integer> seen = new HashMap<>();
+        b.forEach(seen::put);
+        assertEquals(expected, seen);
+    }
+}
@@ -0,0 +1,58 @@
+package hashmap;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/** Tests of SeededHash and of MyHashMap placing keys with it. */
+public class TestSeededHash {
+
+    /** SipHash-1-3 under the all-zero key, as computed by CPython's bytes hash. */
+    @Test
+    public void knownValuesTest() {
+        SeededHash h = new SeededHash(0, 0);
+        byte[] a = "a".getBytes(StandardCharsets.US_ASCII);
+        byte[] hello = "xhello world!".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(4644417185603328019L, h.hashBytes(a, 0, 1));
+        assertEquals(839851713330019024L, h.hashBytes(hello, 1, 12));
+    }
+
+    @Test
+    public void stringMatchesUtf16BytesTest() {
+        SeededHash h = SeededHash.random();
+        for (String s : new String[]{"", "a", "abc", "abcd", "hello world!", "\u00e9\u4e2d"}) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_16LE);
+            assertEquals(h.hashBytes(bytes, 0, bytes.length), h.hashString(s));
+        }
+    }
+
+    /** Strings whose hashCode() is the same no longer share a hash. */
+    @Test
+    public void separatesCollidingStringsTest() {
+        SeededHash h = SeededHash.random();
+        List<String> keys = TestMyHashMapAdaptiveBuckets.collidingStrings(10);
+        Set<Integer> hashes = new HashSet<>();
+        for (String key : keys) {
+            hashes.add(h.hash(key));
+        }
+        assertTrue(hashes.size() > keys.size() - 5);
+    }
+
+    @Test
+    public void seededMapTest() {
+        TestMyHashMap.functionalityTest(
+                new MyHashMap<>(16, 0.75, false, SeededHash.random()),
+                new MyHashMap<>(16, 0.75, true, SeededHash.random()));
+        MyHashMap<Integer, Integer> b = new MyHashMap<>(16, 0.75, false, SeededHash.random());
+        for (int i = 0; i < 1000; i++) {
+            b.put(i, i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, b.get(i).intValue());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package gitlet;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the gitlet benchmarks and exports the results as JSON.
+ * Usage: java -cp target/benchmarks.jar gitlet.BenchmarkRunner [REGEX] [OUTPUT]
+ * where REGEX selects the benchmarks to run (default: all of them) and
+ * OUTPUT is the JSON report (default: jmh-result.json).
+ *
+ * @author Jiayi Mao
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : "gitlet\\..*Benchmark.*";
+        String output = args.length > 1 ? args[1] : "jmh-result.json";
+        Options options = new OptionsBuilder()
+                .include(include)
+                .resultFormat(ResultFormatType.JSON)
+                .result(output)
+                .build();
+        new Runner(options).run();
+    }
+}
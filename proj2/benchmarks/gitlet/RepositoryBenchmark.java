@@ -0,0 +1,159 @@
+package gitlet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for the core gitlet commands, run against a synthetic
+ * repository (see {@link SyntheticRepository}) generated once per trial.
+ * Commands that change the repository get their preconditions rebuilt
+ * before every invocation, outside of the measured region.
+ *
+ * @author Jiayi Mao
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RepositoryBenchmark {
+    /** Branch used by the merge and checkout benchmarks. */
+    private static final String SIDE_BRANCH = "bench-side";
+
+    @Param({"100", "1000"})
+    public int files;
+
+    @Param({"100"})
+    public int commits;
+
+    @Param({"4"})
+    public int branches;
+
+    @Param({"4"})
+    public int mergeInterval;
+
+    private SyntheticRepository repo;
+    private PrintStream stdout;
+    private String mergeBase;
+    private Commit masterHead;
+    private Commit sideHead;
+    private boolean onSide;
+
+    @Setup(Level.Trial)
+    public void createRepository() throws IOException {
+        repo = new SyntheticRepository(files, commits, branches, mergeInterval);
+        repo.prepare();
+        stdout = SyntheticRepository.silence();
+        repo.generate();
+
+        // let master and SIDE_BRANCH diverge by one commit each
+        Repository.branch(SIDE_BRANCH);
+        repo.switchTo(SIDE_BRANCH);
+        repo.editSlice(1 % branches);
+        Repository.commit("diverge " + SIDE_BRANCH);
+        repo.switchTo("master");
+        repo.editSlice(0);
+        Repository.commit("diverge master");
+
+        mergeBase = repo.headOf("master");
+        masterHead = repo.readCommit(mergeBase);
+        sideHead = repo.readCommit(repo.headOf(SIDE_BRANCH));
+    }
+
+    @TearDown(Level.Trial)
+    public void destroyRepository() {
+        System.setOut(stdout);
+        repo.destroy();
+    }
+
+    /** A modified file, so add always has to store a new blob. */
+    @State(Scope.Benchmark)
+    public static class ModifiedFile {
+        @Setup(Level.Invocation)
+        public void modify(RepositoryBenchmark bench) {
+            bench.repo.writeFile(0);
+        }
+    }
+
+    @Benchmark
+    public void add(ModifiedFile modified) {
+        Repository.add(SyntheticRepository.fileName(0));
+    }
+
+    @State(Scope.Benchmark)
+    public static class StagedChange {
+        @Setup(Level.Invocation)
+        public void stage(RepositoryBenchmark bench) {
+            Repository.add(bench.repo.writeFile(1));
+        }
+    }
+
+    @Benchmark
+    public void commit(StagedChange staged) {
+        Repository.commit("bench commit");
+    }
+
+    @Benchmark
+    public void log() {
+        Repository.log();
+    }
+
+    @Benchmark
+    public void globalLog() {
+        Repository.globalLog();
+    }
+
+    /** Warm runs answer unchanged files from the stat cache. */
+    @Benchmark
+    public void status() {
+        Repository.status();
+    }
+
+    @Benchmark
+    public void find() {
+        Repository.find("initial commit");
+    }
+
+    /** Alternates between master and the side branch. */
+    @Benchmark
+    public void checkoutBranch() {
+        Repository.checkoutBranch(onSide ? "master" : SIDE_BRANCH);
+        onSide = !onSide;
+    }
+
+    @State(Scope.Benchmark)
+    public static class MergeBase {
+        @Setup(Level.Invocation)
+        public void resetToBase(RepositoryBenchmark bench) {
+            bench.repo.switchTo("master");
+            bench.onSide = false;
+            Repository.reset(bench.mergeBase);
+        }
+    }
+
+    @Benchmark
+    public void merge(MergeBase base) {
+        Repository.merge(SIDE_BRANCH);
+    }
+
+    @Benchmark
+    public Commit getSplitPoint() {
+        return Repository.getSplitPoint(masterHead, sideHead);
+    }
+}
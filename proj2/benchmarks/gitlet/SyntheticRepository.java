@@ -0,0 +1,142 @@
+package gitlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+
+import static gitlet.Repository.CWD;
+import static gitlet.Repository.OBJECTS_DIR;
+
+/**
+ * Builds a throwaway gitlet repository for the benchmarks.
+ * <p>
+ * Repository binds CWD to "user.dir" when the class is first loaded, so
+ * {@link #prepare()} must run before anything touches Repository. JMH forks
+ * a fresh JVM for every trial, which gives each trial its own repository.
+ * <p>
+ * The generated history has FILES tracked files, COMMITS commits spread
+ * round-robin over BRANCHES branches (master included), and a merge of the
+ * side branch into master after every MERGEINTERVAL side-branch commits.
+ * Every branch only edits its own slice of the files, so merges never
+ * conflict.
+ *
+ * @author Jiayi Mao
+ */
+class SyntheticRepository {
+    private final int files;
+    private final int commits;
+    private final int branches;
+    private final int mergeInterval;
+
+    private File root;
+    private int revision;
+
+    SyntheticRepository(int files, int commits, int branches, int mergeInterval) {
+        this.files = files;
+        this.commits = commits;
+        this.branches = Math.max(1, branches);
+        this.mergeInterval = mergeInterval;
+    }
+
+    /** Creates an empty temp directory and makes it the gitlet CWD. */
+    File prepare() throws IOException {
+        root = Files.createTempDirectory("gitlet-bench").toFile();
+        System.setProperty("user.dir", root.getAbsolutePath());
+        return root;
+    }
+
+    /** Runs init and replays the synthetic history. */
+    void generate() {
+        Repository.init();
+        for (int i = 0; i < files; i++) {
+            writeFile(i);
+            Repository.add(fileName(i));
+        }
+        Repository.commit("synthetic import");
+        for (int b = 1; b < branches; b++) {
+            Repository.branch(branchName(b));
+        }
+
+        int sideCommits = 0;
+        for (int i = 0; i < commits; i++) {
+            int b = i % branches;
+            switchTo(branchName(b));
+            editSlice(b);
+            Repository.commit("commit " + i + " on " + branchName(b));
+            if (b != 0 && mergeInterval > 0 && ++sideCommits % mergeInterval == 0) {
+                // master must move too, otherwise merge would fast-forward
+                switchTo("master");
+                editSlice(0);
+                Repository.commit("commit " + i + " on master");
+                Repository.merge(branchName(b));
+            }
+        }
+        switchTo("master");
+    }
+
+    /** Changes every file of BRANCH's slice and stages it. */
+    void editSlice(int branch) {
+        for (int i = branch; i < files; i += branches) {
+            writeFile(i);
+            Repository.add(fileName(i));
+        }
+    }
+
+    /** Rewrites file I with fresh content and returns its name. */
+    String writeFile(int i) {
+        revision++;
+        String name = fileName(i);
+        Utils.writeContents(Utils.join(CWD, name),
+                "file " + i + " revision " + revision + "\n");
+        return name;
+    }
+
+    void switchTo(String branch) {
+        if (!Utils.readContentsAsString(Repository.HEAD_FILE).equals(branch)) {
+            Repository.checkoutBranch(branch);
+        }
+    }
+
+    String headOf(String branch) {
+        return Refs.read(Refs.HEADS + branch);
+    }
+
+    Commit readCommit(String id) {
+        return Utils.readObject(Utils.join(OBJECTS_DIR, id), Commit.class);
+    }
+
+    static String fileName(int i) {
+        return "f" + i + ".txt";
+    }
+
+    static String branchName(int b) {
+        return b == 0 ? "master" : "b" + b;
+    }
+
+    /** Deletes the temp directory. */
+    void destroy() {
+        delete(root);
+    }
+
+    private static void delete(File file) {
+        if (file == null) {
+            return;
+        }
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    /** Swallows gitlet's console output so printing is not measured. */
+    static PrintStream silence() {
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        return original;
+    }
+}
@@ -0,0 +1,198 @@
+package gitlet;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * The state of a bisect session, saved in .gitlet/bisect between commands.
+ * <p>
+ * The candidates are the commits reachable from the bad commit but from
+ * none of the good ones. They are ordered by generation number (the
+ * length of the longest parent chain inside the candidate set), and the
+ * candidate at the median generation is tested next, which halves a
+ * linear range exactly and approximately halves a merged one without
+ * counting ancestors per candidate.
+ *
+ * @author Jiayi Mao
+ */
+public class Bisect implements Serializable {
+    private String originalBranch;
+    private String originalCommitId;
+    private String checkedOutId;        // commit whose files are in the working directory
+    private String badId;
+    private TreeSet<String> goodIds;
+    private TreeSet<String> skippedIds;
+
+    public Bisect(String originalBranch, String originalCommitId) {
+        this.originalBranch = originalBranch;
+        this.originalCommitId = originalCommitId;
+        this.checkedOutId = originalCommitId;
+        this.goodIds = new TreeSet<>();
+        this.skippedIds = new TreeSet<>();
+    }
+
+    public static Bisect readFrom(File file) {
+        if (!file.exists()) {
+            return null;
+        }
+        return Utils.readObject(file, Bisect.class);
+    }
+
+    public void saveTo(File file) {
+        Utils.writeObject(file, this);
+    }
+
+    public String getOriginalBranch() {
+        return originalBranch;
+    }
+
+    public String getOriginalCommitId() {
+        return originalCommitId;
+    }
+
+    public String getCheckedOutId() {
+        return checkedOutId;
+    }
+
+    public void setCheckedOutId(String checkedOutId) {
+        this.checkedOutId = checkedOutId;
+    }
+
+    public String getBadId() {
+        return badId;
+    }
+
+    public void markBad(String id) {
+        badId = id;
+    }
+
+    public void markGood(String id) {
+        goodIds.add(id);
+    }
+
+    public void markSkipped(String id) {
+        skippedIds.add(id);
+    }
+
+    public boolean isReady() {
+        return badId != null && !goodIds.isEmpty();
+    }
+
+    /**
+     * Returns the commits that may still be the first bad one, ordered by
+     * generation, oldest first. The bad commit itself is always last.
+     * LOADER reads a commit by id.
+     */
+    public List<String> getCandidates(Function<String, Commit> loader) {
+        Map<String, Commit> commits = new HashMap<>();
+        Set<String> excluded = new HashSet<>();
+        for (String goodId : goodIds) {
+            collectAncestors(goodId, excluded, null, commits, loader);
+        }
+        Set<String> candidates = new HashSet<>();
+        collectAncestors(badId, candidates, excluded, commits, loader);
+
+        Map<String, Integer> generations = new HashMap<>();
+        for (String id : candidates) {
+            computeGeneration(id, candidates, generations, commits);
+        }
+        List<String> result = new ArrayList<>(candidates);
+        result.sort(Comparator.comparing((String id) -> generations.get(id))
+                .thenComparing(id -> id));
+        return result;
+    }
+
+    /**
+     * Returns the candidate to test next from CANDIDATES (as returned by
+     * getCandidates), or null if none is left that has not been skipped.
+     */
+    public String pickMidpoint(List<String> candidates) {
+        List<String> testable = new ArrayList<>();
+        for (String id : candidates) {
+            if (!id.equals(badId) && !skippedIds.contains(id)) {
+                testable.add(id);
+            }
+        }
+        if (testable.isEmpty()) {
+            return null;
+        }
+        return testable.get(testable.size() / 2);
+    }
+
+    private static void collectAncestors(String start, Set<String> result, Set<String> stop,
+                                         Map<String, Commit> commits,
+                                         Function<String, Commit> loader) {
+        Deque<String> fringe = new ArrayDeque<>();
+        fringe.push(start);
+        while (!fringe.isEmpty()) {
+            String id = fringe.pop();
+            if (result.contains(id) || (stop != null && stop.contains(id))) {
+                continue;
+            }
+            result.add(id);
+            Commit commit = commits.computeIfAbsent(id, loader);
+            if (commit.hasParent()) {
+                fringe.push(commit.getParent());
+            }
+            if (commit.hasSecondParent()) {
+                fringe.push(commit.getSecondParent());
+            }
+        }
+    }
+
+    // iterative, so that thousands of commits do not overflow the stack
+    private static void computeGeneration(String start, Set<String> candidates,
+                                          Map<String, Integer> generations,
+                                          Map<String, Commit> commits) {
+        Deque<String> stack = new ArrayDeque<>();
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            String id = stack.peek();
+            if (generations.containsKey(id)) {
+                stack.pop();
+                continue;
+            }
+            Commit commit = commits.get(id);
+            int generation = 1;
+            boolean ready = true;
+            for (String parent : parentsOf(commit)) {
+                if (!candidates.contains(parent)) {
+                    continue;
+                }
+                Integer parentGeneration = generations.get(parent);
+                if (parentGeneration == null) {
+                    stack.push(parent);
+                    ready = false;
+                } else {
+                    generation = Math.max(generation, parentGeneration + 1);
+                }
+            }
+            if (ready) {
+                generations.put(id, generation);
+                stack.pop();
+            }
+        }
+    }
+
+    private static List<String> parentsOf(Commit commit) {
+        List<String> parents = new ArrayList<>(2);
+        if (commit.hasParent()) {
+            parents.add(commit.getParent());
+        }
+        if (commit.hasSecondParent()) {
+            parents.add(commit.getSecondParent());
+        }
+        return parents;
+    }
+}
@@ -0,0 +1,232 @@
+package gitlet;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Attributes every line of a file to the commit that last changed it.
+ * <p>
+ * History is followed along first parents, and only the commits at which
+ * the file's blob id changes are looked at. The versions found that way are
+ * then replayed oldest first: each one is line-diffed against the version
+ * before it, matched lines keep their commit and the other lines get the
+ * commit that introduced the version. The attribution is cached in
+ * .gitlet/blame under the file's path and the id of the commit it holds
+ * for: the blamed commit, and the commit introducing each version. A walk
+ * stops at the first cached commit it meets, so blaming the same file
+ * again costs one cache read and blaming it after a new commit costs one
+ * diff. Since commits never change, neither does the attribution at one,
+ * so entries are written once and never replaced, and an entry only names
+ * commits in the history of the commit it is stored under.
+ *
+ * @author Jiayi Mao
+ */
+class Blame {
+    private Blame() {
+    }
+
+    /**
+     * Returns the line contents of the file at PATH in HEAD, which must track
+     * it, and stores the id of the commit each line comes from into
+     * COMMITIDS. LOADER reads a commit by id, CACHEDIR holds the cache.
+     */
+    static List<String> attribute(String path, Commit head, Function<String, Commit> loader,
+                                  File cacheDir, List<String> commitIds) {
+        // versions of the file newest first, as {blob id, id of the commit introducing it}
+        List<String[]> versions = new ArrayList<>();
+        String[] base = null;
+        Commit commit = head;
+        String blobId = head.getBlobMap().get(path);
+        walk:
+        while (true) {
+            base = readCache(cacheDir, commit.getId(), path);
+            if (base != null) {
+                break;
+            }
+            String parentBlobId = null;
+            Commit parent = null;
+            while (commit.hasParent()) {
+                parent = loader.apply(commit.getParent());
+                parentBlobId = parent.getBlobMap().get(path);
+                if (!blobId.equals(parentBlobId)) {
+                    break;
+                }
+                commit = parent;
+                base = readCache(cacheDir, commit.getId(), path);
+                if (base != null) {
+                    break walk;
+                }
+            }
+            versions.add(new String[]{blobId, commit.getId()});
+            if (!commit.hasParent() || parentBlobId == null) {
+                break;  // the file was added here
+            }
+            commit = parent;
+            blobId = parentBlobId;
+        }
+
+        List<String> lines;
+        String[] attribution;
+        if (base != null) {
+            lines = readLines(blobId);
+            attribution = base;
+        } else {
+            lines = Collections.emptyList();
+            attribution = new String[0];
+        }
+        Collections.reverse(versions);
+        for (String[] version : versions) {
+            List<String> newLines = readLines(version[0]);
+            int[] origins = matchLines(lines, newLines);
+            String[] newAttribution = new String[newLines.size()];
+            for (int i = 0; i < origins.length; i++) {
+                newAttribution[i] = origins[i] < 0 ? version[1] : attribution[origins[i]];
+            }
+            writeCache(cacheDir, version[1], path, newAttribution);
+            lines = newLines;
+            attribution = newAttribution;
+        }
+        writeCache(cacheDir, head.getId(), path, attribution);
+        commitIds.addAll(Arrays.asList(attribution));
+        return lines;
+    }
+
+    /** Returns the cache file of the attribution of PATH at the commit with COMMITID. */
+    private static File cacheFile(File cacheDir, String commitId, String path) {
+        return Utils.join(cacheDir, Utils.sha1(commitId, path));
+    }
+
+    private static String[] readCache(File cacheDir, String commitId, String path) {
+        File file = cacheFile(cacheDir, commitId, path);
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            return Utils.readObject(file, String[].class);
+        } catch (IllegalArgumentException excp) {
+            return null;  // a broken entry is simply recomputed
+        }
+    }
+
+    /** Caches ATTRIBUTION for PATH at the commit with COMMITID, unless an entry exists. */
+    private static void writeCache(File cacheDir, String commitId, String path, String[] attribution) {
+        File file = cacheFile(cacheDir, commitId, path);
+        if (!file.exists()) {
+            Utils.writeObject(file, attribution);
+        }
+    }
+
+    private static List<String> readLines(String blobId) {
+        String content = new String(Blob.load(blobId).getContent(), StandardCharsets.UTF_8);
+        if (content.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> lines = new ArrayList<>(Arrays.asList(content.split("\n", -1)));
+        if (content.endsWith("\n")) {
+            lines.remove(lines.size() - 1);
+        }
+        return lines;
+    }
+
+    /**
+     * Returns, for every line of NEWLINES, the index of the line of OLDLINES
+     * it is kept from, or -1 if it was inserted. Uses Myers' O(ND) diff on
+     * what is left after stripping the common prefix and suffix.
+     */
+    private static int[] matchLines(List<String> oldLines, List<String> newLines) {
+        // compare small ints instead of strings in the inner loop
+        Map<String, Integer> codes = new HashMap<>();
+        int[] a = encode(oldLines, codes);
+        int[] b = encode(newLines, codes);
+        int[] origins = new int[b.length];
+        Arrays.fill(origins, -1);
+
+        int start = 0;
+        while (start < a.length && start < b.length && a[start] == b[start]) {
+            origins[start] = start;
+            start++;
+        }
+        int endA = a.length;
+        int endB = b.length;
+        while (endA > start && endB > start && a[endA - 1] == b[endB - 1]) {
+            endA--;
+            endB--;
+            origins[endB] = endA;
+        }
+        int n = endA - start;
+        int m = endB - start;
+        if (n == 0 || m == 0) {
+            return origins;
+        }
+
+        int max = n + m;
+        int offset = max + 1;
+        int[] v = new int[2 * max + 3];
+        List<int[]> trace = new ArrayList<>();
+        search:
+        for (int d = 0; d <= max; d++) {
+            trace.add(v.clone());
+            for (int k = -d; k <= d; k += 2) {
+                int x;
+                if (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])) {
+                    x = v[offset + k + 1];
+                } else {
+                    x = v[offset + k - 1] + 1;
+                }
+                int y = x - k;
+                while (x < n && y < m && a[start + x] == b[start + y]) {
+                    x++;
+                    y++;
+                }
+                v[offset + k] = x;
+                if (x >= n && y >= m) {
+                    break search;
+                }
+            }
+        }
+
+        // walk the trace back from the end, recording the diagonal (kept) moves
+        int x = n;
+        int y = m;
+        for (int d = trace.size() - 1; d >= 0; d--) {
+            int[] previous = trace.get(d);
+            int k = x - y;
+            int prevK;
+            if (k == -d || (k != d && previous[offset + k - 1] < previous[offset + k + 1])) {
+                prevK = k + 1;
+            } else {
+                prevK = k - 1;
+            }
+            int prevX = previous[offset + prevK];
+            int prevY = prevX - prevK;
+            while (x > prevX && y > prevY) {
+                x--;
+                y--;
+                origins[start + y] = start + x;
+            }
+            x = prevX;
+            y = prevY;
+        }
+        return origins;
+    }
+
+    private static int[] encode(List<String> lines, Map<String, Integer> codes) {
+        int[] encoded = new int[lines.size()];
+        for (int i = 0; i < encoded.length; i++) {
+            Integer code = codes.get(lines.get(i));
+            if (code == null) {
+                code = codes.size();
+                codes.put(lines.get(i), code);
+            }
+            encoded[i] = code;
+        }
+        return encoded;
+    }
+}
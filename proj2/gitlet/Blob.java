@@ -1,8 +1,15 @@
 package gitlet;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 
+import static gitlet.Repository.CWD;
 import static gitlet.Repository.OBJECTS_DIR;
 
 /**
@@ -10,35 +17,125 @@ import static gitlet.Repository.OBJECTS_DIR;
  * @create: 2024-01-25 10:19
  */
 public class Blob implements Serializable {
+    // a blob object file is laid out as:
+    // [length of the serialized blob: 4 bytes][serialized blob][raw content]
+    // so the content can be mapped and transferred without deserializing it.
+    private static final int HEADER_SIZE = Integer.BYTES;
+
     private String id;
-    private byte[] content;
-    private File file;
+    private String path;                    // relative to CWD, / separated
+    private transient ByteBuffer content;   // read-only, position 0
+    private transient File source;          // object file the content lives in, if loaded
+    private transient long contentOffset;
+
+    /** A blob of the working file at PATH, relative to CWD. */
+    public Blob(String path) {
+        // working files are read onto the heap: mapping a file the user may
+        // truncate at any time is not safe
+        this(path, Utils.readContents(Utils.join(CWD, path)));
+    }
+
+    /** A blob holding CONTENT for the file at PATH, relative to CWD. */
+    public Blob(String path, byte[] content) {
+        this.path = PathTable.intern(path);
+        this.content = ByteBuffer.wrap(content).asReadOnlyBuffer();
+        this.id = Hashing.hasher().update(path).update(getContentBuffer()).hexDigest();
+    }
 
-    public Blob(File file) {
-        this.file = file;
-        this.content = Utils.readContents(file);
-        this.id = Utils.sha1(getFileName(), getContent());
+    /**
+     * Returns the id a blob of the working file at PATH would get, streaming
+     * FILE instead of loading it.
+     */
+    public static String idOf(String path, File file) {
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            return Hashing.hasher().update(path).update(in).hexDigest();
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
+    /** Loads the blob stored under ID, mapping its content if it is large. */
+    public static Blob load(String id) {
+        File objectFile = Utils.join(OBJECTS_DIR, id);
+        return parse(objectFile, Utils.readContentsBuffer(objectFile));
+    }
+
+    /** Returns the blob stored in OBJECTFILE, whose contents are BUFFER. */
+    static Blob parse(File objectFile, ByteBuffer buffer) {
+        int metaLength = buffer.getInt(0);
+        ByteBuffer meta = buffer.duplicate();
+        meta.position(HEADER_SIZE).limit(HEADER_SIZE + metaLength);
+        Blob blob = Utils.deserialize(meta, Blob.class);
+
+        ByteBuffer content = buffer.duplicate();
+        content.position(HEADER_SIZE + metaLength);
+        blob.content = content.slice();
+        blob.source = objectFile;
+        blob.contentOffset = HEADER_SIZE + metaLength;
+        return blob;
+    }
+
+    /** Returns the id this blob's path and content hash to, which is its id unless it was corrupted. */
+    String computeId() {
+        return Hashing.hasher().update(path).update(getContentBuffer()).hexDigest();
     }
 
     public String getId() {
         return id;
     }
 
+    /** Returns a copy of the content on the heap. */
     public byte[] getContent() {
-        return content;
+        ByteBuffer buffer = getContentBuffer();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
     }
 
-    public File getFile() {
-        return file;
+    /** Returns a read-only view of the content that the caller may consume. */
+    public ByteBuffer getContentBuffer() {
+        return content.duplicate();
     }
 
+    public File getFile() {
+        return Utils.join(CWD, path);
+    }
 
+    /** Returns the path of the file relative to CWD. */
     public String getFileName() {
-        return file.getName();
+        return path;
+    }
+
+    /** Writes the content to TARGET, straight from the object file if there is one. */
+    public void writeTo(File target) {
+        target.getParentFile().mkdirs();
+        if (source != null) {
+            Utils.transferContents(source, contentOffset, content.remaining(), target);
+        } else {
+            Utils.writeContents(target, getContent());
+        }
     }
 
     public void save() {
         File file = Utils.join(OBJECTS_DIR, id);
-        Utils.writeObject(file, this);
+        if (file.exists()) {
+            return;  // blobs are content-addressed, the stored copy is identical
+        }
+        byte[] meta = Utils.serialize(this);
+        ByteBuffer[] parts = {
+            ByteBuffer.allocate(HEADER_SIZE).putInt(0, meta.length),
+            ByteBuffer.wrap(meta),
+            getContentBuffer()
+        };
+        long total = HEADER_SIZE + meta.length + content.remaining();
+        try (FileChannel out = FileChannel.open(file.toPath(), StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long written = 0;
+            while (written < total) {
+                written += out.write(parts);
+            }
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
     }
 }
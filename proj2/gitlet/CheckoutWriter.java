@@ -0,0 +1,78 @@
+package gitlet;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static gitlet.Repository.CWD;
+
+/**
+ * Writes blobs into the working directory on a bounded thread pool.
+ * <p>
+ * All directories are created up front, in path order, so the writers
+ * never race on mkdirs. Callers must run their own checks (such as the
+ * untracked-file check) before calling write, since files are written in
+ * no particular order and a failure may leave some of them written.
+ *
+ * @author Jiayi Mao
+ */
+class CheckoutWriter {
+    /** Below this many files the pool costs more than it saves. */
+    private static final int PARALLEL_THRESHOLD = 16;
+
+    private static final int MAX_THREADS = 8;
+
+    /** Writes every FILES entry (key: file path, value: blob id) under CWD. */
+    static void write(Map<String, String> files) {
+        TreeSet<File> dirs = new TreeSet<>();
+        for (String fileName : files.keySet()) {
+            dirs.add(Utils.join(CWD, fileName).getParentFile());
+        }
+        for (File dir : dirs) {
+            dir.mkdirs();
+        }
+
+        int threads = Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors());
+        if (files.size() < PARALLEL_THRESHOLD || threads < 2) {
+            for (Map.Entry<String, String> entry : files.entrySet()) {
+                writeFile(entry.getKey(), entry.getValue());
+            }
+            return;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "gitlet-checkout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> writes = new ArrayList<>(files.size());
+            for (Map.Entry<String, String> entry : files.entrySet()) {
+                writes.add(pool.submit(() -> writeFile(entry.getKey(), entry.getValue())));
+            }
+            for (Future<?> write : writes) {
+                write.get();
+            }
+        } catch (ExecutionException excp) {
+            if (excp.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) excp.getCause();
+            }
+            throw new IllegalArgumentException(excp.getCause());
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+            throw new IllegalArgumentException(excp);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void writeFile(String fileName, String blobId) {
+        Blob.load(blobId).writeTo(Utils.join(CWD, fileName));
+    }
+}
@@ -4,29 +4,49 @@ package gitlet;
 import com.sun.source.tree.Tree;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 import static gitlet.Repository.OBJECTS_DIR;
 
 /**
  * Represents a gitlet commit object.
+ * <p>
+ * Commits are stored with their time as epoch millis and their blob map
+ * in the encoding of writeObject. Repositories made before this format
+ * stored the formatted time and a serialized TreeMap instead, and their
+ * commits can no longer be read: re-create such a repository with init.
+ * Commit ids are unaffected, since they are still computed from the
+ * formatted time.
  *
  * @author JiayiMao
  */
 public class Commit implements Serializable {
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("EEE MMM d HH:mm:ss yyyy Z", Locale.US);
+
     private String id;
     private String parent;
     private String secondParent;
-    private String timeStamp;
-    private TreeMap<String, String> blobMap;   // key: blob name, value: blob id
+    private long time;                   // epoch millis
+    private int zoneOffset;              // seconds east of UTC where the commit was made
+    private transient String timeStamp;  // formatted on first use
+    private transient TreeMap<String, String> blobMap;   // key: file path, value: blob id, see readObject
+    private transient byte[] encodedBlobMap;             // blobMap as read, until it is first needed
     private String message;
 
     public Commit(String message) {
         this.parent = "";
         this.secondParent = "";
-        this.timeStamp = dateToTimeStamp(new Date(0));
+        setTime(0);
         this.blobMap = new TreeMap<>();
         this.message = message;
         this.id = generateId();
@@ -35,19 +55,47 @@ public class Commit implements Serializable {
     public Commit(String parent, String secondParent, TreeMap<String, String> blobMap, String message) {
         this.parent = parent;
         this.secondParent = secondParent == null ? "" : secondParent;
-        this.timeStamp = dateToTimeStamp(new Date());
+        setTime(System.currentTimeMillis());
+        this.blobMap = blobMap;
+        this.message = message;
+        this.id = generateId();
+    }
+
+    /** A commit made at TIME (epoch millis) in a zone ZONEOFFSET seconds east of UTC. */
+    public Commit(String parent, String secondParent, TreeMap<String, String> blobMap, String message,
+                  long time, int zoneOffset) {
+        this.parent = parent;
+        this.secondParent = secondParent == null ? "" : secondParent;
+        this.time = time;
+        this.zoneOffset = zoneOffset;
         this.blobMap = blobMap;
         this.message = message;
         this.id = generateId();
     }
 
+    /** Returns the id this commit's contents hash to, which is its id unless it was corrupted. */
+    String computeId() {
+        return generateId();
+    }
+
     private String generateId() {
-        return Utils.sha1(parent, secondParent, timeStamp, message, blobMap.toString());
+        // same bytes as sha1(parent, secondParent, timeStamp, message, blobMap.toString()),
+        // but streamed entry by entry instead of building the map's string first
+        Hashing.Hasher hasher = Hashing.hasher()
+                .update(parent).update(secondParent).update(getTimeStamp()).update(message)
+                .update("{");
+        String separator = "";
+        for (Map.Entry<String, String> entry : getBlobMap().entrySet()) {
+            hasher.update(separator).update(entry.getKey()).update("=").update(entry.getValue());
+            separator = ", ";
+        }
+        return hasher.update("}").hexDigest();
     }
 
-    private String dateToTimeStamp(Date date) {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("EEE MMM d HH:mm:ss yyyy Z", Locale.US);
-        return dateFormat.format(date);
+    private void setTime(long millis) {
+        Instant instant = Instant.ofEpochMilli(millis);
+        this.time = millis;
+        this.zoneOffset = ZoneId.systemDefault().getRules().getOffset(instant).getTotalSeconds();
     }
 
     public String getId() {
@@ -66,11 +114,32 @@ public class Commit implements Serializable {
         return !secondParent.equals("");
     }
 
+    public long getTime() {
+        return time;
+    }
+
+    public int getZoneOffset() {
+        return zoneOffset;
+    }
+
     public String getTimeStamp() {
+        if (timeStamp == null) {
+            timeStamp = formatTime(time, zoneOffset);
+        }
         return timeStamp;
     }
 
+    /** Returns TIME (epoch millis) as log prints it, in a zone ZONEOFFSET seconds east of UTC. */
+    static String formatTime(long time, int zoneOffset) {
+        return OffsetDateTime.ofInstant(Instant.ofEpochMilli(time),
+                ZoneOffset.ofTotalSeconds(zoneOffset)).format(TIME_FORMAT);
+    }
+
     public TreeMap<String, String> getBlobMap() {
+        if (blobMap == null) {
+            blobMap = PathTable.decodeBlobMap(encodedBlobMap);
+            encodedBlobMap = null;
+        }
         return blobMap;
     }
 
@@ -84,21 +153,35 @@ public class Commit implements Serializable {
     }
 
     public boolean exitsBlob(Blob blob) {
-        return blobMap.values().contains(blob.getId());
+        return getBlobMap().values().contains(blob.getId());
     }
 
     public List<String> getBlobNames() {
         List<String> blobNames = new ArrayList<>();
-        blobNames.addAll(blobMap.keySet());
+        blobNames.addAll(getBlobMap().keySet());
         return blobNames;
     }
 
     public Blob getBlobByName(String fileName) {
-        String blobId = blobMap.get(fileName);
-        return Utils.readObject(Utils.join(OBJECTS_DIR, blobId), Blob.class);
+        String blobId = getBlobMap().get(fileName);
+        return Blob.load(blobId);
     }
 
     public boolean hasParent() {
         return !parent.equals("");
     }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        byte[] encoded = blobMap == null ? encodedBlobMap : PathTable.encodeBlobMap(blobMap);
+        out.writeInt(encoded.length);
+        out.write(encoded);
+    }
+
+    // the blob map is only copied out here; log and find never pay for decoding it
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        encodedBlobMap = new byte[in.readInt()];
+        in.readFully(encodedBlobMap);
+    }
 }
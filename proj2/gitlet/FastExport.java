@@ -0,0 +1,164 @@
+package gitlet;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Writes the history reachable from a set of branches as a fast-import
+ * stream (see FastImport for the format).
+ * <p>
+ * Commits come parents first. Each one lists only the files that differ
+ * from its first parent, and every blob is written once, just before the
+ * first commit that uses it. The initial commit is not written: commits on
+ * top of it get no from line, and the importing repository's own initial
+ * commit takes its place.
+ *
+ * @author Jiayi Mao
+ */
+class FastExport {
+    private final OutputStream out;
+    private final WritableByteChannel channel;
+    private final Function<String, Commit> loader;
+
+    private final Map<String, String> marks = new HashMap<>();   // key: object id, value: mark
+    private int nextMark = 1;
+
+    /** An exporter writing to OUT that reads commits with LOADER. */
+    FastExport(OutputStream out, Function<String, Commit> loader) {
+        this.out = new BufferedOutputStream(out, 1 << 16);
+        this.channel = Channels.newChannel(this.out);
+        this.loader = loader;
+    }
+
+    /** Exports BRANCHES (key: name, value: commit id), whose root commit is ROOTID. */
+    void run(TreeMap<String, String> branches, String rootId) {
+        try {
+            Map<String, Commit> commits = new HashMap<>();
+            for (String id : topologicalOrder(branches.values(), rootId, commits)) {
+                writeCommit(commits.get(id), rootId, commits);
+            }
+            for (Map.Entry<String, String> branch : branches.entrySet()) {
+                write("reset " + branch.getKey() + "\n");
+                if (!branch.getValue().equals(rootId)) {
+                    write("from " + marks.get(branch.getValue()) + "\n");
+                }
+                write("\n");
+            }
+            out.flush();
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
+    // every commit reachable from TIPS except the root, each after its parents
+    private List<String> topologicalOrder(Iterable<String> tips, String rootId,
+                                          Map<String, Commit> commits) {
+        List<String> order = new ArrayList<>();
+        Set<String> visited = new HashSet<>();
+        Deque<String> stack = new ArrayDeque<>();
+        for (String tip : tips) {
+            stack.push(tip);
+        }
+        while (!stack.isEmpty()) {
+            String id = stack.peek();
+            if (id.equals(rootId) || visited.contains(id)) {
+                stack.pop();
+                continue;
+            }
+            Commit commit = commits.computeIfAbsent(id, loader);
+            boolean ready = true;
+            for (String parent : new String[]{commit.getParent(), commit.getSecondParent()}) {
+                if (!parent.isEmpty() && !parent.equals(rootId) && !visited.contains(parent)) {
+                    stack.push(parent);
+                    ready = false;
+                }
+            }
+            if (ready) {
+                stack.pop();
+                visited.add(id);
+                order.add(id);
+            }
+        }
+        return order;
+    }
+
+    private void writeCommit(Commit commit, String rootId, Map<String, Commit> commits)
+            throws IOException {
+        boolean onRoot = commit.getParent().equals(rootId);
+        TreeMap<String, String> before = onRoot
+                ? new TreeMap<>() : commits.get(commit.getParent()).getBlobMap();
+        TreeMap<String, String> after = commit.getBlobMap();
+
+        List<String> fileLines = new ArrayList<>();
+        for (Map.Entry<String, String> entry : after.entrySet()) {
+            String blobId = entry.getValue();
+            if (blobId.equals(before.get(entry.getKey()))) {
+                continue;
+            }
+            if (!marks.containsKey(blobId)) {
+                writeBlob(blobId);
+            }
+            fileLines.add("M " + marks.get(blobId) + " " + entry.getKey() + "\n");
+        }
+        for (String fileName : before.keySet()) {
+            if (!after.containsKey(fileName)) {
+                fileLines.add("D " + fileName + "\n");
+            }
+        }
+
+        String mark = newMark(commit.getId());
+        write("commit\nmark " + mark + "\n");
+        write("time " + commit.getTime() + " " + commit.getZoneOffset() + "\n");
+        writeData(ByteBuffer.wrap(commit.getMessage().getBytes(StandardCharsets.UTF_8)));
+        if (!onRoot) {
+            write("from " + marks.get(commit.getParent()) + "\n");
+        }
+        if (commit.hasSecondParent()) {
+            write("merge " + marks.get(commit.getSecondParent()) + "\n");
+        }
+        for (String line : fileLines) {
+            write(line);
+        }
+        write("\n");
+    }
+
+    private void writeBlob(String blobId) throws IOException {
+        Blob blob = Blob.load(blobId);
+        write("blob " + blob.getFileName() + "\nmark " + newMark(blobId) + "\n");
+        writeData(blob.getContentBuffer());
+        write("\n");
+    }
+
+    private void writeData(ByteBuffer data) throws IOException {
+        write("data " + data.remaining() + "\n");
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+        write("\n");
+    }
+
+    private String newMark(String id) {
+        String mark = ":" + nextMark++;
+        marks.put(id, mark);
+        return mark;
+    }
+
+    private void write(String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
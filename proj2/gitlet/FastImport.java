@@ -0,0 +1,426 @@
+package gitlet;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Reads a fast-import stream and turns it into objects and branches in a
+ * single pass.
+ * <p>
+ * The stream is a sequence of commands, separated by blank lines:
+ * <pre>
+ * blob PATH                 a file version; gitlet blobs belong to a path
+ * mark :N
+ * data LENGTH
+ * LENGTH raw bytes
+ *
+ * commit [BRANCH]           a commit, moving BRANCH to it if given
+ * mark :N
+ * time MILLIS OFFSET        epoch millis, zone offset in seconds (optional)
+ * data LENGTH               the message
+ * LENGTH raw bytes
+ * from REF                  first parent; without it, the initial commit
+ * merge REF                 second parent (optional)
+ * M REF PATH                PATH gets the blob REF
+ * D PATH                    PATH is removed
+ *
+ * reset BRANCH              moves BRANCH to REF, or to the initial commit
+ * from REF
+ * </pre>
+ * A REF is a mark or the full id of an object that is already stored. A
+ * PATH must be relative and stay inside the working directory, outside
+ * .gitlet, so that a hostile stream cannot make checkout write anywhere
+ * else. A commit starts from the files of its first parent and applies
+ * its M and D lines. Objects are written in batches on a small thread
+ * pool while the stream is read, and branches are only written after
+ * every object is on disk, all at the end.
+ *
+ * @author Jiayi Mao
+ */
+class FastImport {
+    /** Objects queued before a batch is written. */
+    private static final int BATCH_SIZE = 1024;
+
+    /** Blob maps of recent commits kept for the commits built on them. */
+    private static final int TREE_CACHE_SIZE = 256;
+
+    private static final int MAX_THREADS = 8;
+
+    private final BufferedInputStream in;
+    private final String rootId;
+    private final Function<String, Commit> loader;
+
+    private final Map<String, String> marks = new HashMap<>();        // key: mark, value: object id
+    private final Map<String, String> blobPaths = new HashMap<>();    // key: blob id, value: its path
+    private final Map<String, String> branches = new LinkedHashMap<>();
+    private final Map<String, Commit> pendingCommits = new HashMap<>();
+    private final List<Callable<Void>> pendingWrites = new ArrayList<>();
+    private final Set<String> written = new HashSet<>();
+    private final Map<String, TreeMap<String, String>> trees =
+            new LinkedHashMap<String, TreeMap<String, String>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, TreeMap<String, String>> eldest) {
+                    return size() > TREE_CACHE_SIZE;
+                }
+            };
+
+    private ExecutorService pool;
+    private int lineNumber;
+    private String pushedBack;
+
+    /**
+     * An importer reading IN that gives commits without a first parent
+     * ROOTID as parent. LOADER reads a commit that is already stored.
+     */
+    FastImport(InputStream in, String rootId, Function<String, Commit> loader) {
+        this.in = new BufferedInputStream(in, 1 << 16);
+        this.rootId = rootId;
+        this.loader = loader;
+    }
+
+    /** Imports the whole stream and returns the branches it set, by name. */
+    Map<String, String> run() {
+        int threads = Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors());
+        pool = Executors.newFixedThreadPool(Math.max(threads, 1), runnable -> {
+            Thread thread = new Thread(runnable, "gitlet-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            String line;
+            while ((line = readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                if (line.startsWith("blob ")) {
+                    readBlob(line.substring("blob ".length()));
+                } else if (line.equals("commit") || line.startsWith("commit ")) {
+                    readCommit(line.length() > "commit".length()
+                            ? checkBranch(line.substring("commit ".length())) : null);
+                } else if (line.startsWith("reset ")) {
+                    readReset(checkBranch(line.substring("reset ".length())));
+                } else {
+                    fail("unknown command " + line);
+                }
+            }
+            flush();
+        } finally {
+            pool.shutdownNow();
+        }
+        return branches;
+    }
+
+    private void readBlob(String path) {
+        path = checkPath(path);
+        String mark = readMark();
+        byte[] content = readData();
+        Blob blob = new Blob(path, content);
+        blobPaths.put(blob.getId(), blob.getFileName());
+        if (mark != null) {
+            marks.put(mark, blob.getId());
+        }
+        if (written.add(blob.getId())) {
+            queue(() -> {
+                blob.save();
+                return null;
+            });
+        }
+    }
+
+    private void readCommit(String branch) {
+        String mark = readMark();
+        long time = System.currentTimeMillis();
+        int zoneOffset = 0;
+        String line = readLine();
+        if (line != null && line.startsWith("time ")) {
+            String[] fields = line.split(" ");
+            if (fields.length != 3) {
+                fail("bad time line");
+            }
+            try {
+                time = Long.parseLong(fields[1]);
+                zoneOffset = Integer.parseInt(fields[2]);
+            } catch (NumberFormatException excp) {
+                fail("bad time line");
+            }
+        } else {
+            pushBack(line);
+        }
+        String message = new String(readData(), StandardCharsets.UTF_8);
+
+        String parent = rootId;
+        String secondParent = null;
+        line = readLine();
+        if (line != null && line.startsWith("from ")) {
+            parent = resolveCommit(line.substring("from ".length()));
+            line = readLine();
+        }
+        if (line != null && line.startsWith("merge ")) {
+            secondParent = resolveCommit(line.substring("merge ".length()));
+            line = readLine();
+        }
+
+        TreeMap<String, String> tree = new TreeMap<>(treeOf(parent));
+        while (line != null && (line.startsWith("M ") || line.startsWith("D "))) {
+            if (line.startsWith("D ")) {
+                tree.remove(checkPath(line.substring("D ".length())));
+            } else {
+                int space = line.indexOf(' ', "M ".length());
+                if (space < 0) {
+                    fail("bad file line");
+                }
+                String blobId = resolve(line.substring("M ".length(), space));
+                String path = checkPath(line.substring(space + 1));
+                String blobPath = blobPathOf(blobId);
+                if (!blobPath.equals(path)) {
+                    fail("blob of " + blobPath + " given for " + path);
+                }
+                tree.put(path, blobId);
+            }
+            line = readLine();
+        }
+        pushBack(line);
+
+        Commit commit = new Commit(parent, secondParent, tree, message, time, zoneOffset);
+        if (mark != null) {
+            marks.put(mark, commit.getId());
+        }
+        if (branch != null) {
+            branches.put(branch, commit.getId());
+        }
+        trees.put(commit.getId(), tree);
+        if (written.add(commit.getId())) {
+            pendingCommits.put(commit.getId(), commit);
+            queue(() -> {
+                commit.save();
+                return null;
+            });
+        }
+    }
+
+    private void readReset(String branch) {
+        String line = readLine();
+        if (line != null && line.startsWith("from ")) {
+            branches.put(branch, resolveCommit(line.substring("from ".length())));
+        } else {
+            pushBack(line);
+            branches.put(branch, rootId);
+        }
+    }
+
+    // the blob map of the commit with ID, from the cache, the current batch or disk
+    private TreeMap<String, String> treeOf(String id) {
+        TreeMap<String, String> tree = trees.get(id);
+        if (tree != null) {
+            return tree;
+        }
+        Commit commit = pendingCommits.get(id);
+        if (commit == null) {
+            try {
+                commit = loader.apply(id);
+            } catch (IllegalArgumentException excp) {
+                fail("not a commit: " + id);
+            }
+        }
+        if (commit == null) {
+            fail("no commit " + id);
+        }
+        tree = commit.getBlobMap();
+        trees.put(id, tree);
+        return tree;
+    }
+
+    // the id of the object REF names, which this import wrote or was already stored
+    private String resolve(String ref) {
+        if (ref.startsWith(":")) {
+            String id = marks.get(ref);
+            if (id == null) {
+                fail("undefined mark " + ref);
+            }
+            return id;
+        }
+        if (ref.length() != Utils.UID_LENGTH) {
+            fail("not an object id: " + ref);
+        }
+        if (!written.contains(ref) && !Utils.join(Repository.OBJECTS_DIR, ref).isFile()) {
+            fail("no object " + ref);
+        }
+        return ref;
+    }
+
+    // like resolve, for a REF that must name a commit
+    private String resolveCommit(String ref) {
+        String id = resolve(ref);
+        treeOf(id);
+        return id;
+    }
+
+    // the path of the blob with ID, which must be a blob
+    private String blobPathOf(String id) {
+        String path = blobPaths.get(id);
+        if (path != null) {
+            return path;
+        }
+        if (!written.contains(id)) {
+            try {
+                path = PathTable.intern(Blob.load(id).getFileName());
+                blobPaths.put(id, path);
+                return path;
+            } catch (RuntimeException excp) {
+                // not a blob; reported below
+            }
+        }
+        fail("not a blob: " + id);
+        return null;
+    }
+
+    // PATH, if it is relative, has no empty, "." or ".." components and is not in .gitlet
+    private String checkPath(String path) {
+        boolean absolute;
+        try {
+            absolute = path.isEmpty() || path.indexOf('\\') >= 0 || Paths.get(path).isAbsolute();
+        } catch (InvalidPathException excp) {
+            absolute = true;
+        }
+        if (absolute) {
+            fail("bad path " + path);
+        }
+        for (String component : path.split("/", -1)) {
+            if (component.isEmpty() || component.equals(".") || component.equals("..")) {
+                fail("bad path " + path);
+            }
+        }
+        if (path.equals(".gitlet") || path.startsWith(".gitlet/")) {
+            fail("path inside .gitlet: " + path);
+        }
+        return PathTable.intern(path);
+    }
+
+    // NAME, if it can name a branch: not empty, "." or "..", and with no / or \
+    private String checkBranch(String name) {
+        if (name.isEmpty() || name.equals(".") || name.equals("..")
+                || name.indexOf('/') >= 0 || name.indexOf('\\') >= 0) {
+            fail("bad branch name " + name);
+        }
+        return name;
+    }
+
+    private String readMark() {
+        String line = readLine();
+        if (line != null && line.startsWith("mark ")) {
+            return line.substring("mark ".length());
+        }
+        pushBack(line);
+        return null;
+    }
+
+    // a "data LENGTH" line, then LENGTH raw bytes and an optional line feed
+    private byte[] readData() {
+        String line = readLine();
+        if (line == null || !line.startsWith("data ")) {
+            fail("expected data");
+        }
+        int length = 0;
+        try {
+            length = Integer.parseInt(line.substring("data ".length()));
+        } catch (NumberFormatException excp) {
+            fail("bad data length");
+        }
+        try {
+            byte[] data = in.readNBytes(length);
+            if (data.length != length) {
+                fail("data ends early");
+            }
+            in.mark(1);
+            if (in.read() != '\n') {
+                in.reset();
+            } else {
+                lineNumber++;
+            }
+            for (byte b : data) {
+                if (b == '\n') {
+                    lineNumber++;
+                }
+            }
+            return data;
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
+    private String readLine() {
+        if (pushedBack != null) {
+            String line = pushedBack;
+            pushedBack = null;
+            return line;
+        }
+        try {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b = in.read();
+            if (b < 0) {
+                return null;
+            }
+            while (b >= 0 && b != '\n') {
+                line.write(b);
+                b = in.read();
+            }
+            lineNumber++;
+            return line.toString(StandardCharsets.UTF_8);
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
+    private void pushBack(String line) {
+        pushedBack = line;
+    }
+
+    private void queue(Callable<Void> write) {
+        pendingWrites.add(write);
+        if (pendingWrites.size() >= BATCH_SIZE) {
+            flush();
+        }
+    }
+
+    // write every queued object; commits in the batch are readable from disk afterwards
+    private void flush() {
+        try {
+            for (Future<Void> write : pool.invokeAll(pendingWrites)) {
+                write.get();
+            }
+        } catch (ExecutionException excp) {
+            if (excp.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) excp.getCause();
+            }
+            throw new IllegalArgumentException(excp.getCause());
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+            throw new IllegalArgumentException(excp);
+        }
+        pendingWrites.clear();
+        pendingCommits.clear();
+    }
+
+    private void fail(String problem) {
+        Utils.exitWithMessage("Bad fast-import stream at line " + lineNumber + ": " + problem + ".");
+    }
+}
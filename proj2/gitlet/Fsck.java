@@ -0,0 +1,221 @@
+package gitlet;
+
+import java.io.File;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Checks the object store: every object must hash to its file name, and
+ * every parent, blob and tag target an object names must exist with the
+ * right type.
+ * <p>
+ * Objects are read and re-hashed on a pool of one thread per core, in
+ * chunks of CHUNK_SIZE, and large contents are hashed straight from the
+ * mapped file. Only what each object points at is kept, so the links and
+ * reachability are then checked in memory. An object nothing reachable
+ * points at is dangling; of a dangling chain, only the object at its top
+ * is reported.
+ *
+ * @author Jiayi Mao
+ */
+class Fsck {
+    private static final int CHUNK_SIZE = 256;
+
+    private static final String COMMIT = "commit";
+    private static final String BLOB = "blob";
+    private static final String TAG = "tag";
+
+    private final File objectsDir;
+    private final Map<String, ObjectInfo> objects = new HashMap<>();
+
+    /** A check of the objects in OBJECTSDIR. */
+    Fsck(File objectsDir) {
+        this.objectsDir = objectsDir;
+    }
+
+    /**
+     * Checks every object and returns the problems found, one line each,
+     * corrupt objects first. ROOTS (key: what refers to it, value: id) are
+     * the objects reachable from outside the store.
+     */
+    List<String> run(Map<String, String> roots) {
+        readAll();
+
+        TreeSet<String> corrupt = new TreeSet<>();
+        TreeSet<String> missing = new TreeSet<>();
+        TreeSet<String> broken = new TreeSet<>();
+        Set<String> referenced = new HashSet<>();
+        for (ObjectInfo info : objects.values()) {
+            if (info.problem != null) {
+                corrupt.add(info.problem + " " + info.id);
+                continue;
+            }
+            for (String[] link : info.links) {
+                referenced.add(link[1]);
+                checkLink(info.type + " " + info.id, link[0], link[1], missing, broken);
+            }
+        }
+        for (Map.Entry<String, String> root : roots.entrySet()) {
+            checkLink(root.getKey(), null, root.getValue(), missing, broken);
+        }
+
+        TreeSet<String> dangling = new TreeSet<>();
+        Set<String> reachable = reachableFrom(roots.values());
+        for (ObjectInfo info : objects.values()) {
+            if (info.problem == null && !reachable.contains(info.id) && !referenced.contains(info.id)) {
+                dangling.add("dangling " + info.type + " " + info.id);
+            }
+        }
+
+        List<String> report = new ArrayList<>(corrupt);
+        report.addAll(missing);
+        report.addAll(broken);
+        report.addAll(dangling);
+        return report;
+    }
+
+    // FROM points at TARGET, which should be an object of type TYPE (any type if null)
+    private void checkLink(String from, String type, String target,
+                           Set<String> missing, Set<String> broken) {
+        ObjectInfo info = objects.get(target);
+        if (info == null) {
+            missing.add("missing " + (type == null ? "object" : type) + " " + target);
+        } else if (type != null && info.problem == null && !type.equals(info.type)) {
+            broken.add("broken link from " + from + " to " + type + " " + target);
+        }
+    }
+
+    private Set<String> reachableFrom(Collection<String> roots) {
+        Set<String> reachable = new HashSet<>();
+        Deque<String> fringe = new ArrayDeque<>(roots);
+        while (!fringe.isEmpty()) {
+            String id = fringe.pop();
+            ObjectInfo info = objects.get(id);
+            if (info == null || !reachable.add(id)) {
+                continue;
+            }
+            for (String[] link : info.links) {
+                fringe.push(link[1]);
+            }
+        }
+        return reachable;
+    }
+
+    private void readAll() {
+        List<String> ids = Utils.plainFilenamesIn(objectsDir);
+        if (ids == null) {
+            return;
+        }
+        List<Callable<List<ObjectInfo>>> chunks = new ArrayList<>();
+        for (int start = 0; start < ids.size(); start += CHUNK_SIZE) {
+            List<String> chunk = ids.subList(start, Math.min(ids.size(), start + CHUNK_SIZE));
+            chunks.add(() -> {
+                List<ObjectInfo> infos = new ArrayList<>(chunk.size());
+                for (String id : chunk) {
+                    infos.add(check(id));
+                }
+                return infos;
+            });
+        }
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "gitlet-fsck");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (Future<List<ObjectInfo>> chunk : pool.invokeAll(chunks)) {
+                for (ObjectInfo info : chunk.get()) {
+                    objects.put(info.id, info);
+                }
+            }
+        } catch (ExecutionException excp) {
+            if (excp.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) excp.getCause();
+            }
+            throw new IllegalArgumentException(excp.getCause());
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+            throw new IllegalArgumentException(excp);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // read the object file ID, work out its type and links, and re-hash it
+    private ObjectInfo check(String id) {
+        ObjectInfo info = new ObjectInfo(id);
+        File file = Utils.join(objectsDir, id);
+        try {
+            ByteBuffer buffer = Utils.readContentsBuffer(file);
+            boolean serialized = buffer.limit() >= 2
+                    && (buffer.get(0) & 0xff) == 0xac && (buffer.get(1) & 0xff) == 0xed;
+            if (!serialized) {
+                info.type = BLOB;
+                Blob blob = Blob.parse(file, buffer);
+                if (!id.equals(blob.getId()) || !id.equals(blob.computeId())) {
+                    info.problem = "hash mismatch in blob";
+                }
+                return info;
+            }
+            Serializable object = Utils.deserialize(buffer, Serializable.class);
+            if (object instanceof Commit) {
+                Commit commit = (Commit) object;
+                info.type = COMMIT;
+                if (commit.hasParent()) {
+                    info.links.add(new String[]{COMMIT, commit.getParent()});
+                }
+                if (commit.hasSecondParent()) {
+                    info.links.add(new String[]{COMMIT, commit.getSecondParent()});
+                }
+                for (String blobId : commit.getBlobMap().values()) {
+                    info.links.add(new String[]{BLOB, blobId});
+                }
+                if (!id.equals(commit.getId()) || !id.equals(commit.computeId())) {
+                    info.problem = "hash mismatch in commit";
+                }
+            } else if (object instanceof Tag) {
+                Tag tag = (Tag) object;
+                info.type = TAG;
+                info.links.add(new String[]{COMMIT, tag.getTarget()});
+                if (!id.equals(tag.getId()) || !id.equals(tag.computeId())) {
+                    info.problem = "hash mismatch in tag";
+                }
+            } else {
+                info.problem = "unknown object";
+            }
+        } catch (RuntimeException excp) {
+            info.problem = "unreadable object";
+            info.links.clear();
+        }
+        return info;
+    }
+
+    /** What one object is and what it points at. */
+    private static class ObjectInfo {
+        private final String id;
+        private String type;
+        private String problem;                       // null if the object is sound
+        private final List<String[]> links = new ArrayList<>();   // {type expected, id}
+
+        ObjectInfo(String id) {
+            this.id = id;
+        }
+    }
+}
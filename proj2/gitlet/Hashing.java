@@ -0,0 +1,137 @@
+package gitlet;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * SHA-1 hashing shared by blobs, commits and the stage.
+ * <p>
+ * Each thread keeps one MessageDigest and one scratch buffer, so hashing
+ * neither looks up the provider nor allocates per call. Digests are hex
+ * encoded through a lookup table instead of java.util.Formatter.
+ *
+ * @author Jiayi Mao
+ */
+final class Hashing {
+
+    /** Size of the per-thread buffer used to encode strings and streams. */
+    private static final int SCRATCH_SIZE = 8192;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private static final ThreadLocal<Hasher> HASHERS =
+            ThreadLocal.withInitial(Hasher::new);
+
+    private Hashing() {
+    }
+
+    /**
+     * Returns the hasher of the current thread, reset and ready for use.
+     * The hasher must not be shared with other threads, nor used again
+     * after another call to this method on the same thread.
+     */
+    static Hasher hasher() {
+        Hasher hasher = HASHERS.get();
+        hasher.reset();
+        return hasher;
+    }
+
+    /**
+     * Returns the SHA-1 hash of the concatenation of VALS, which may
+     * be any mixture of byte arrays and Strings.
+     */
+    static String sha1(Object... vals) {
+        Hasher hasher = hasher();
+        for (Object val : vals) {
+            if (val instanceof byte[]) {
+                hasher.update((byte[]) val);
+            } else if (val instanceof String) {
+                hasher.update((String) val);
+            } else {
+                throw new IllegalArgumentException("improper type to sha1");
+            }
+        }
+        return hasher.hexDigest();
+    }
+
+    /** Returns the lowercase hexadecimal numeral for BYTES. */
+    static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0, j = 0; i < bytes.length; i++) {
+            int b = bytes[i] & 0xff;
+            chars[j++] = HEX_DIGITS[b >>> 4];
+            chars[j++] = HEX_DIGITS[b & 0x0f];
+        }
+        return new String(chars);
+    }
+
+    /** An incremental SHA-1 computation; see {@link #hasher()}. */
+    static final class Hasher {
+        private final MessageDigest digest;
+        private final byte[] scratch = new byte[SCRATCH_SIZE];
+
+        private Hasher() {
+            try {
+                digest = MessageDigest.getInstance("SHA-1");
+            } catch (NoSuchAlgorithmException excp) {
+                throw new IllegalArgumentException("System does not support SHA-1");
+            }
+        }
+
+        private void reset() {
+            digest.reset();
+        }
+
+        Hasher update(byte[] bytes) {
+            digest.update(bytes);
+            return this;
+        }
+
+        Hasher update(ByteBuffer buffer) {
+            digest.update(buffer);
+            return this;
+        }
+
+        /**
+         * Feeds the UTF-8 encoding of S. ASCII text, which is what ids,
+         * file names and timestamps are made of, is encoded straight into
+         * the scratch buffer without allocating.
+         */
+        Hasher update(String s) {
+            int n = 0;
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c >= 0x80) {
+                    digest.update(scratch, 0, n);
+                    digest.update(s.substring(i).getBytes(StandardCharsets.UTF_8));
+                    return this;
+                }
+                if (n == scratch.length) {
+                    digest.update(scratch, 0, n);
+                    n = 0;
+                }
+                scratch[n++] = (byte) c;
+            }
+            digest.update(scratch, 0, n);
+            return this;
+        }
+
+        /** Feeds everything left in IN, without closing it. */
+        Hasher update(InputStream in) throws IOException {
+            int n;
+            while ((n = in.read(scratch)) > 0) {
+                digest.update(scratch, 0, n);
+            }
+            return this;
+        }
+
+        /** Returns the digest as a 40-digit hex numeral and resets. */
+        String hexDigest() {
+            return toHex(digest.digest());
+        }
+    }
+}
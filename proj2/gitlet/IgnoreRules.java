@@ -0,0 +1,86 @@
+package gitlet;
+
+import java.io.File;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The patterns of a .gitletignore file, compiled once into PathMatchers.
+ * <p>
+ * One glob per line; blank lines and lines starting with # are skipped.
+ * A pattern ending in / only matches directories. A pattern without any
+ * other / is matched against file names at every depth, otherwise against
+ * the path relative to the repository root. An ignored directory is not
+ * entered at all.
+ *
+ * @author Jiayi Mao
+ */
+class IgnoreRules {
+    private final List<Rule> rules = new ArrayList<>();
+
+    /** Reads the rules in FILE; no rules if FILE does not exist. */
+    static IgnoreRules readFrom(File file) {
+        IgnoreRules ignoreRules = new IgnoreRules();
+        if (!file.isFile()) {
+            return ignoreRules;
+        }
+        for (String line : Utils.readContentsAsString(file).split("\\R")) {
+            ignoreRules.add(line);
+        }
+        return ignoreRules;
+    }
+
+    void add(String line) {
+        String pattern = line.trim();
+        if (pattern.isEmpty() || pattern.startsWith("#")) {
+            return;
+        }
+        boolean directoryOnly = pattern.endsWith("/");
+        if (directoryOnly) {
+            pattern = pattern.substring(0, pattern.length() - 1);
+        }
+        if (pattern.startsWith("/")) {
+            pattern = pattern.substring(1);
+        }
+        boolean anchored = pattern.contains("/");
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        rules.add(new Rule(matcher, anchored, directoryOnly));
+    }
+
+    /**
+     * Returns true if the file at RELATIVEPATH (using / as separator), whose
+     * last component is NAME, is ignored.
+     */
+    boolean isIgnored(String relativePath, String name, boolean isDirectory) {
+        if (rules.isEmpty()) {
+            return false;
+        }
+        Path path = Paths.get(relativePath);
+        Path fileName = Paths.get(name);
+        for (Rule rule : rules) {
+            if (rule.directoryOnly && !isDirectory) {
+                continue;
+            }
+            if (rule.matcher.matches(rule.anchored ? path : fileName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class Rule {
+        final PathMatcher matcher;
+        final boolean anchored;
+        final boolean directoryOnly;
+
+        Rule(PathMatcher matcher, boolean anchored, boolean directoryOnly) {
+            this.matcher = matcher;
+            this.anchored = anchored;
+            this.directoryOnly = directoryOnly;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package gitlet;
 
+import java.util.Arrays;
+
 /** Driver class for Gitlet, a subset of the Git version-control system.
  *  @author Jiayi Mao
  */
@@ -99,11 +101,144 @@ public class Main {
                 validateArgs(args,2);
                 Repository.merge(args[1]);
                 break;
+            case "cherry-pick":
+                Utils.checkIfRepositoryInit();
+                validateArgs(args,2);
+                Repository.cherryPick(args[1]);
+                break;
+            case "rebase":
+                Utils.checkIfRepositoryInit();
+                validateArgs(args,2);
+                Repository.rebase(args[1]);
+                break;
+            case "stash":
+                Utils.checkIfRepositoryInit();
+                if (args.length == 1) {
+                    Repository.stash();
+                } else if (args.length == 2 && args[1].equals("pop")) {
+                    Repository.stashPop();
+                } else {
+                    Utils.exitWithMessage("Incorrect operands.");
+                }
+                break;
+            case "blame":
+                Utils.checkIfRepositoryInit();
+                validateArgs(args,2);
+                Repository.blame(args[1]);
+                break;
+            case "fast-export":
+                Utils.checkIfRepositoryInit();
+                if (args.length > 2) {
+                    Utils.exitWithMessage("Incorrect operands.");
+                }
+                Repository.fastExport(args.length == 2 ? args[1] : null);
+                break;
+            case "fast-import":
+                Utils.checkIfRepositoryInit();
+                if (args.length > 2) {
+                    Utils.exitWithMessage("Incorrect operands.");
+                }
+                Repository.fastImport(args.length == 2 ? args[1] : null);
+                break;
+            case "tag":
+                Utils.checkIfRepositoryInit();
+                dispatchTag(args);
+                break;
+            case "pack-refs":
+                Utils.checkIfRepositoryInit();
+                validateArgs(args,1);
+                Repository.packRefs();
+                break;
+            case "fsck":
+                Utils.checkIfRepositoryInit();
+                validateArgs(args,1);
+                Repository.fsck();
+                break;
+            case "reflog":
+                Utils.checkIfRepositoryInit();
+                dispatchReflog(args);
+                break;
+            case "bisect":
+                Utils.checkIfRepositoryInit();
+                dispatchBisect(args);
+                break;
             default:
                 Utils.exitWithMessage("No command with that name exists.");
         }
     }
 
+    // tag | tag -d NAME | tag NAME [ID] | tag -a NAME -m MESSAGE [ID]
+    private static void dispatchTag(String[] args) {
+        if (args.length == 1) {
+            Repository.printTags();
+        } else if (args[1].equals("-d")) {
+            validateArgs(args,3);
+            Repository.rmTag(args[2]);
+        } else if (args[1].equals("-a")) {
+            if ((args.length != 5 && args.length != 6) || !args[3].equals("-m")) {
+                Utils.exitWithMessage("Incorrect operands.");
+            }
+            Repository.tag(args[2], args.length == 6 ? args[5] : null, args[4]);
+        } else if (args.length <= 3 && !args[1].startsWith("-")) {
+            Repository.tag(args[1], args.length == 3 ? args[2] : null, null);
+        } else {
+            Utils.exitWithMessage("Incorrect operands.");
+        }
+    }
+
+    // reflog [BRANCH] [-n COUNT]
+    private static void dispatchReflog(String[] args) {
+        String branchName = null;
+        int count = Integer.MAX_VALUE;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("-n") && i + 1 < args.length) {
+                try {
+                    count = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException excp) {
+                    Utils.exitWithMessage("Incorrect operands.");
+                }
+            } else if (branchName == null && !args[i].startsWith("-")) {
+                branchName = args[i];
+            } else {
+                Utils.exitWithMessage("Incorrect operands.");
+            }
+        }
+        if (count < 0) {
+            Utils.exitWithMessage("Incorrect operands.");
+        }
+        Repository.reflog(branchName, count);
+    }
+
+    private static void dispatchBisect(String[] args) {
+        String subcommand = args.length > 1 ? args[1] : "";
+        switch (subcommand) {
+            case "start":
+                validateArgs(args,2);
+                Repository.bisectStart();
+                break;
+            case "good":
+            case "bad":
+            case "skip":
+                if (args.length > 3) {
+                    Utils.exitWithMessage("Incorrect operands.");
+                }
+                Repository.bisectMark(subcommand, args.length == 3 ? args[2] : null);
+                break;
+            case "run":
+                if (args.length < 3) {
+                    Utils.exitWithMessage("Incorrect operands.");
+                }
+                Repository.bisectRun(Arrays.asList(args).subList(2, args.length));
+                break;
+            case "reset":
+                validateArgs(args,2);
+                Repository.bisectReset();
+                break;
+            default:
+                Utils.exitWithMessage("Incorrect operands.");
+        }
+    }
+
     private static void validateArgs(String[] args,int count){
         if(args.length!=count){
             Utils.exitWithMessage("Incorrect operands.");
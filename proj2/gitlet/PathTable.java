@@ -0,0 +1,178 @@
+package gitlet;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Repository-relative paths and the compact form blob maps are stored in.
+ * <p>
+ * Paths always use / as separator. In memory every distinct path is
+ * interned once per process, so the blob maps of the many commits a
+ * history walk loads share their key strings. On disk a blob map is
+ * written as the table of its distinct path components followed by one
+ * record per file: the indices of its components and the 20 raw bytes of
+ * its blob id. A directory name therefore costs one table entry however
+ * many files it holds.
+ *
+ * @author Jiayi Mao
+ */
+final class PathTable {
+    private static final int ID_BYTES = Utils.UID_LENGTH / 2;
+
+    private static final Map<String, String> INTERNED = new ConcurrentHashMap<>();
+
+    private PathTable() {
+    }
+
+    /** Returns the canonical instance of PATH. */
+    static String intern(String path) {
+        String previous = INTERNED.putIfAbsent(path, path);
+        return previous == null ? path : previous;
+    }
+
+    /**
+     * Returns the path of FILE relative to ROOT, with / separators, or null
+     * if FILE is ROOT itself or lies outside it.
+     */
+    static String relativize(File root, File file) {
+        Path rootPath = root.toPath().toAbsolutePath().normalize();
+        Path filePath = file.toPath().toAbsolutePath().normalize();
+        if (!filePath.startsWith(rootPath) || filePath.equals(rootPath)) {
+            return null;
+        }
+        StringBuilder result = new StringBuilder();
+        for (Path component : rootPath.relativize(filePath)) {
+            if (result.length() > 0) {
+                result.append('/');
+            }
+            result.append(component);
+        }
+        return intern(result.toString());
+    }
+
+    /** Returns MAP (key: path, value: blob id) in the compact form. */
+    static byte[] encodeBlobMap(TreeMap<String, String> map) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeBlobMap(out, map);
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+        return bytes.toByteArray();
+    }
+
+    /** Decodes a blob map returned by encodeBlobMap. */
+    static TreeMap<String, String> decodeBlobMap(byte[] encoded) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded))) {
+            return readBlobMap(in);
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
+    /** Writes MAP (key: path, value: blob id) to OUT in the compact form. */
+    static void writeBlobMap(DataOutput out, TreeMap<String, String> map)
+            throws IOException {
+        Map<String, Integer> indices = new HashMap<>();
+        List<String> components = new ArrayList<>();
+        List<int[]> paths = new ArrayList<>(map.size());
+        for (String path : map.keySet()) {
+            String[] parts = path.split("/");
+            int[] encoded = new int[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                Integer index = indices.get(parts[i]);
+                if (index == null) {
+                    index = components.size();
+                    indices.put(parts[i], index);
+                    components.add(parts[i]);
+                }
+                encoded[i] = index;
+            }
+            paths.add(encoded);
+        }
+
+        writeVarInt(out, components.size());
+        for (String component : components) {
+            out.writeUTF(component);
+        }
+        writeVarInt(out, map.size());
+        int i = 0;
+        for (String id : map.values()) {
+            int[] encoded = paths.get(i++);
+            writeVarInt(out, encoded.length);
+            for (int index : encoded) {
+                writeVarInt(out, index);
+            }
+            out.write(hexToBytes(id));
+        }
+    }
+
+    /** Reads a blob map written by writeBlobMap from IN. */
+    static TreeMap<String, String> readBlobMap(DataInput in) throws IOException {
+        int componentCount = readVarInt(in);
+        String[] components = new String[componentCount];
+        for (int i = 0; i < componentCount; i++) {
+            components[i] = in.readUTF();
+        }
+        TreeMap<String, String> map = new TreeMap<>();
+        int size = readVarInt(in);
+        byte[] id = new byte[ID_BYTES];
+        StringBuilder path = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            path.setLength(0);
+            int length = readVarInt(in);
+            for (int j = 0; j < length; j++) {
+                if (j > 0) {
+                    path.append('/');
+                }
+                path.append(components[readVarInt(in)]);
+            }
+            in.readFully(id);
+            map.put(intern(path.toString()), Hashing.toHex(id));
+        }
+        return map;
+    }
+
+    private static byte[] hexToBytes(String hex) {
+        if (hex.length() != Utils.UID_LENGTH) {
+            throw new IllegalArgumentException("not a blob id: " + hex);
+        }
+        byte[] bytes = new byte[ID_BYTES];
+        for (int i = 0; i < ID_BYTES; i++) {
+            bytes[i] = (byte) Integer.parseInt(hex.substring(2 * i, 2 * i + 2), 16);
+        }
+        return bytes;
+    }
+
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package gitlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The append-only log of every move of one branch, kept in .gitlet/logs
+ * under the branch's name and left in place when the branch is removed.
+ * <p>
+ * Every record is RECORD_SIZE bytes: the old and the new commit id as 20
+ * raw bytes each (all zero for none), the time as epoch millis, the zone
+ * offset in seconds, and the operation as OPERATION_WIDTH bytes of ASCII
+ * padded with zeros. Records are found by their position alone, so the
+ * last N are read with one seek from the end of the file, whatever its
+ * length. A torn record at the end, left by a crash, is ignored, and cut
+ * off before the next record is appended so that later records stay
+ * aligned.
+ *
+ * @author Jiayi Mao
+ */
+class RefLog {
+    private static final int ID_BYTES = Utils.UID_LENGTH / 2;
+    private static final int OPERATION_WIDTH = 12;
+    static final int RECORD_SIZE = 2 * ID_BYTES + Long.BYTES + Integer.BYTES + OPERATION_WIDTH;
+
+    private RefLog() {
+    }
+
+    /**
+     * Appends to LOG that the branch moved from OLDID to NEWID, either of which
+     * may be null, by OPERATION.
+     */
+    static void append(File log, String oldId, String newId, String operation) {
+        long now = System.currentTimeMillis();
+        int zoneOffset = ZoneId.systemDefault().getRules()
+                .getOffset(Instant.ofEpochMilli(now)).getTotalSeconds();
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        record.put(toBytes(oldId)).put(toBytes(newId)).putLong(now).putInt(zoneOffset);
+        byte[] name = operation.getBytes(StandardCharsets.US_ASCII);
+        record.put(name, 0, Math.min(name.length, OPERATION_WIDTH));
+        record.clear();
+
+        log.getParentFile().mkdirs();
+        try (FileChannel out = FileChannel.open(log.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            long end = out.size() - out.size() % RECORD_SIZE;
+            out.truncate(end);
+            while (record.hasRemaining()) {
+                out.write(record, end + record.position());
+            }
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
+    /** Returns up to COUNT of the last records of LOG, newest first. */
+    static List<Entry> readLast(File log, int count) {
+        List<Entry> entries = new ArrayList<>();
+        if (!log.exists()) {
+            return entries;
+        }
+        try (FileChannel in = FileChannel.open(log.toPath(), StandardOpenOption.READ)) {
+            long records = in.size() / RECORD_SIZE;
+            int wanted = (int) Math.min(count, records);
+            ByteBuffer buffer = ByteBuffer.allocate(wanted * RECORD_SIZE);
+            long position = (records - wanted) * RECORD_SIZE;
+            while (buffer.hasRemaining()) {
+                if (in.read(buffer, position + buffer.position()) < 0) {
+                    break;
+                }
+            }
+            for (int i = wanted - 1; i >= 0; i--) {
+                entries.add(new Entry(buffer, i * RECORD_SIZE));
+            }
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+        return entries;
+    }
+
+    private static byte[] toBytes(String id) {
+        byte[] bytes = new byte[ID_BYTES];
+        if (id != null) {
+            for (int i = 0; i < ID_BYTES; i++) {
+                bytes[i] = (byte) Integer.parseInt(id.substring(2 * i, 2 * i + 2), 16);
+            }
+        }
+        return bytes;
+    }
+
+    /** One move of a branch. */
+    static class Entry {
+        private final String oldId;
+        private final String newId;
+        private final long time;
+        private final int zoneOffset;
+        private final String operation;
+
+        private Entry(ByteBuffer buffer, int offset) {
+            ByteBuffer record = buffer.duplicate();
+            record.position(offset);
+            byte[] id = new byte[ID_BYTES];
+            record.get(id);
+            oldId = toId(id);
+            record.get(id);
+            newId = toId(id);
+            time = record.getLong();
+            zoneOffset = record.getInt();
+            byte[] name = new byte[OPERATION_WIDTH];
+            record.get(name);
+            int length = 0;
+            while (length < name.length && name[length] != 0) {
+                length++;
+            }
+            operation = new String(name, 0, length, StandardCharsets.US_ASCII);
+        }
+
+        private static String toId(byte[] bytes) {
+            for (byte b : bytes) {
+                if (b != 0) {
+                    return Hashing.toHex(bytes);
+                }
+            }
+            return null;
+        }
+
+        /** Returns the commit the branch pointed at before, or null if it did not exist. */
+        String getOldId() {
+            return oldId;
+        }
+
+        /** Returns the commit the branch pointed at after, or null if it was removed. */
+        String getNewId() {
+            return newId;
+        }
+
+        String getTimeStamp() {
+            return Commit.formatTime(time, zoneOffset);
+        }
+
+        String getOperation() {
+            return operation;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package gitlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static gitlet.Repository.PACKED_REFS_FILE;
+import static gitlet.Repository.REFS_DIR;
+
+/**
+ * Branches and tags, by names such as "heads/master" or "tags/v1.0".
+ * <p>
+ * A ref is either loose, a file under .gitlet/refs holding the id, or
+ * packed, a line "ID NAME" of .gitlet/packed-refs. The packed file is kept
+ * sorted by name, so one ref is found by binary search over the file
+ * without reading all of it, and the refs under a prefix are one
+ * contiguous run of lines. A loose ref overrides a packed one of the same
+ * name. New refs are written loose; pack folds them into the packed file.
+ *
+ * @author Jiayi Mao
+ */
+final class Refs {
+    static final String HEADS = "heads/";
+    static final String TAGS = "tags/";
+
+    /** Characters of "ID " in front of the name on a packed line. */
+    private static final int NAME_OFFSET = Utils.UID_LENGTH + 1;
+
+    private Refs() {
+    }
+
+    /** Returns the id NAME points at, or null if there is no such ref. */
+    static String read(String name) {
+        File loose = Utils.join(REFS_DIR, name);
+        if (loose.isFile()) {
+            return Utils.readContentsAsString(loose);
+        }
+        ByteBuffer packed = readPacked();
+        if (packed == null) {
+            return null;
+        }
+        int line = lowerBound(packed, name);
+        if (line < packed.limit() && compareName(packed, line, name) == 0) {
+            return readId(packed, line);
+        }
+        return null;
+    }
+
+    static boolean exists(String name) {
+        return read(name) != null;
+    }
+
+    /** Points NAME at ID, as a loose ref. */
+    static void write(String name, String id) {
+        File loose = Utils.join(REFS_DIR, name);
+        loose.getParentFile().mkdirs();
+        Utils.writeContents(loose, id);
+    }
+
+    /** Removes NAME, loose and packed. */
+    static void delete(String name) {
+        Utils.join(REFS_DIR, name).delete();
+        ByteBuffer packed = readPacked();
+        if (packed == null) {
+            return;
+        }
+        int line = lowerBound(packed, name);
+        if (line < packed.limit() && compareName(packed, line, name) == 0) {
+            TreeMap<String, String> refs = readAllPacked(packed);
+            refs.remove(name);
+            writePacked(refs);
+        }
+    }
+
+    /** Returns every ref whose name starts with PREFIX, keyed by the rest of the name. */
+    static TreeMap<String, String> list(String prefix) {
+        TreeMap<String, String> refs = new TreeMap<>();
+        ByteBuffer packed = readPacked();
+        if (packed != null) {
+            int line = lowerBound(packed, prefix);
+            while (line < packed.limit()) {
+                String name = readName(packed, line);
+                if (!name.startsWith(prefix)) {
+                    break;
+                }
+                refs.put(name.substring(prefix.length()), readId(packed, line));
+                line = lineEnd(packed, line) + 1;
+            }
+        }
+        List<String> loose = Utils.plainFilenamesIn(Utils.join(REFS_DIR, prefix));
+        if (loose != null) {
+            for (String name : loose) {
+                refs.put(name, Utils.readContentsAsString(Utils.join(REFS_DIR, prefix + name)));
+            }
+        }
+        return refs;
+    }
+
+    /** Moves every loose branch and tag into the packed file. */
+    static void pack() {
+        ByteBuffer packed = readPacked();
+        TreeMap<String, String> refs = packed == null ? new TreeMap<>() : readAllPacked(packed);
+        for (String prefix : new String[]{HEADS, TAGS}) {
+            List<String> loose = Utils.plainFilenamesIn(Utils.join(REFS_DIR, prefix));
+            if (loose != null) {
+                for (String name : loose) {
+                    refs.put(prefix + name, Utils.readContentsAsString(Utils.join(REFS_DIR, prefix + name)));
+                }
+            }
+        }
+        writePacked(refs);
+        // the packed file holds every loose ref by now, so dropping them changes nothing
+        for (String name : refs.keySet()) {
+            Utils.join(REFS_DIR, name).delete();
+        }
+    }
+
+    private static ByteBuffer readPacked() {
+        if (!PACKED_REFS_FILE.exists()) {
+            return null;
+        }
+        return Utils.readContentsBuffer(PACKED_REFS_FILE);
+    }
+
+    private static TreeMap<String, String> readAllPacked(ByteBuffer packed) {
+        TreeMap<String, String> refs = new TreeMap<>();
+        for (int line = 0; line < packed.limit(); line = lineEnd(packed, line) + 1) {
+            refs.put(readName(packed, line), readId(packed, line));
+        }
+        return refs;
+    }
+
+    // written next to the packed file and moved over it, so readers never see half of it
+    private static void writePacked(TreeMap<String, String> refs) {
+        StringBuilder content = new StringBuilder();
+        for (Map.Entry<String, String> ref : refs.entrySet()) {
+            content.append(ref.getValue()).append(' ').append(ref.getKey()).append('\n');
+        }
+        File temp = Utils.join(PACKED_REFS_FILE.getParentFile(), PACKED_REFS_FILE.getName() + ".lock");
+        Utils.writeContents(temp, content.toString());
+        try {
+            Files.move(temp.toPath(), PACKED_REFS_FILE.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
+    // the offset of the first line whose name is not less than NAME, or the limit if none
+    private static int lowerBound(ByteBuffer packed, String name) {
+        int lo = 0;
+        int hi = packed.limit();
+        while (lo < hi) {
+            int line = lineStart(packed, (lo + hi) >>> 1);
+            if (compareName(packed, line, name) < 0) {
+                lo = lineEnd(packed, line) + 1;
+            } else {
+                hi = line;
+            }
+        }
+        return lo;
+    }
+
+    private static int lineStart(ByteBuffer packed, int position) {
+        while (position > 0 && packed.get(position - 1) != '\n') {
+            position--;
+        }
+        return position;
+    }
+
+    private static int lineEnd(ByteBuffer packed, int line) {
+        int position = line;
+        while (position < packed.limit() && packed.get(position) != '\n') {
+            position++;
+        }
+        return position;
+    }
+
+    // compares the name on LINE with NAME, byte by byte, as the file is sorted
+    private static int compareName(ByteBuffer packed, int line, String name) {
+        byte[] target = name.getBytes(StandardCharsets.UTF_8);
+        int position = line + NAME_OFFSET;
+        int end = lineEnd(packed, line);
+        for (int i = 0; i < target.length; i++, position++) {
+            if (position >= end) {
+                return -1;
+            }
+            int cmp = Integer.compare(packed.get(position) & 0xff, target[i] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return position < end ? 1 : 0;
+    }
+
+    private static String readName(ByteBuffer packed, int line) {
+        int end = lineEnd(packed, line);
+        byte[] name = new byte[end - line - NAME_OFFSET];
+        ByteBuffer view = packed.duplicate();
+        view.position(line + NAME_OFFSET);
+        view.get(name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    private static String readId(ByteBuffer packed, int line) {
+        byte[] id = new byte[Utils.UID_LENGTH];
+        ByteBuffer view = packed.duplicate();
+        view.position(line);
+        view.get(id);
+        return new String(id, StandardCharsets.US_ASCII);
+    }
+}
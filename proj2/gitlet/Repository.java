@@ -1,6 +1,12 @@
 package gitlet;
 
 import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 
@@ -21,11 +27,20 @@ public class Repository {
      * |--HEAD
      * |--refs
      * |   |--heads
-     * |       |--master
-     * |       |--dev...
+     * |   |   |--master
+     * |   |   |--dev...
+     * |   |--tags
+     * |--packed-refs
+     * |--logs
+     * |   |--master, dev... (reflogs, kept after the branch is removed)
      * |--stage
      * |   |--add_stage
      * |   |--remove_stage
+     * |--stash
+     * |--stat_cache
+     * |--bisect
+     * |--blame
+     * |   |--line attributions by blob id
      */
     public static final File CWD = new File(System.getProperty("user.dir"));
     public static final File GITLET_DIR = join(CWD, ".gitlet");
@@ -33,9 +48,20 @@ public class Repository {
     public static final File HEAD_FILE = join(GITLET_DIR, "HEAD");
     public static final File REFS_DIR = join(GITLET_DIR, "refs");
     public static final File HEADS_DIR = join(REFS_DIR, "heads");
+    public static final File TAGS_DIR = join(REFS_DIR, "tags");
+    public static final File PACKED_REFS_FILE = join(GITLET_DIR, "packed-refs");
+    public static final File LOGS_DIR = join(GITLET_DIR, "logs");
     public static final File STAGE_DIR = join(GITLET_DIR, "stage");
     public static final File ADD_STAGE_FILE = join(STAGE_DIR, "add_stage");
     public static final File REMOVE_STAGE_FILE = join(STAGE_DIR, "remove_stage");
+    public static final File STASH_FILE = join(GITLET_DIR, "stash");
+    public static final File STAT_CACHE_FILE = join(GITLET_DIR, "stat_cache");
+    public static final File BISECT_FILE = join(GITLET_DIR, "bisect");
+    public static final File BLAME_DIR = join(GITLET_DIR, "blame");
+    public static final File IGNORE_FILE = join(CWD, ".gitletignore");
+
+    /** Characters of log output collected before they are printed. */
+    private static final int LOG_BUFFER_SIZE = 64 * 1024;
 
     public static Commit currentCommit;
     public static String currentBranch;
@@ -55,23 +81,24 @@ public class Repository {
         OBJECTS_DIR.mkdirs();
         REFS_DIR.mkdirs();
         HEADS_DIR.mkdirs();
+        TAGS_DIR.mkdirs();
+        LOGS_DIR.mkdirs();
         STAGE_DIR.mkdirs();
 
         Commit commit = new Commit("initial commit");
         commit.save();  // save to ./gitlet/objects/xxx
 
-        File file = Utils.join(HEADS_DIR, "master");
-        Utils.writeContents(file, commit.getId());   // init branch---"master"
+        updateRef("master", commit.getId(), "init");   // init branch---"master"
 
         Utils.writeContents(HEAD_FILE, "master");  // init HEAD with master branch
     }
 
     public static void add(String fileName) {
-        File file = Utils.join(CWD, fileName);
-        if (!file.exists()) {
+        fileName = toTrackedPath(fileName);
+        if (fileName == null || !Utils.join(CWD, fileName).isFile()) {
             Utils.exitWithMessage("File does not exist.");
         }
-        Blob blob = new Blob(file);
+        Blob blob = new Blob(fileName);
 
         currentCommit = getCurrentCommit();
         addStage = getAddStage();
@@ -117,11 +144,12 @@ public class Repository {
         Commit commit = new Commit(currentCommit.getId(), null, calMap, message);
         commit.save();
         currentBranch = getCurrentBranch();
-        Utils.writeContents(Utils.join(HEADS_DIR, currentBranch), commit.getId());
+        updateRef(currentBranch, commit.getId(), "commit");
         clearStage();
     }
 
     public static void rm(String fileName) {
+        fileName = resolveTrackedPath(fileName);
         currentCommit = getCurrentCommit();
         addStage = getAddStage();
         removeStage = getRemoveStage();
@@ -129,10 +157,7 @@ public class Repository {
             addStage.delete(fileName);
             addStage.saveTo(ADD_STAGE_FILE);
         } else if (currentCommit.getBlobNames().contains(fileName)) {
-            File file = Utils.join(CWD, fileName);
-            if (file.exists()) {
-                file.delete();
-            }
+            deleteWorkingFile(fileName);
             Blob removeBlob = currentCommit.getBlobByName(fileName);
             removeStage.add(removeBlob);
             removeStage.saveTo(REMOVE_STAGE_FILE);
@@ -143,25 +168,30 @@ public class Repository {
 
     public static void log() {
         Commit commit = getCurrentCommit();
-
+        StringBuilder out = new StringBuilder();
         while (commit.hasParent()) {
-            printCommitLog(commit);
+            appendCommitLog(out, commit);
+            flushLog(out, false);
             commit = getCommitById(commit.getParent());
         }
-        printCommitLog(commit);  // print the initial commit
+        appendCommitLog(out, commit);  // print the initial commit
+        flushLog(out, true);
     }
 
     public static void globalLog() {
         List<String> objectIds = Utils.plainFilenamesIn(OBJECTS_DIR);
         if (objectIds == null) return;
+        StringBuilder out = new StringBuilder();
         for (String id : objectIds) {
             try {
                 Commit commit = getCommitById(id);
-                printCommitLog(commit);
+                appendCommitLog(out, commit);
+                flushLog(out, false);
             } catch (Exception e) {
                 // if the id belongs to a blob, we do nothing.
             }
         }
+        flushLog(out, true);
     }
 
     public static void find(String message) {
@@ -195,17 +225,19 @@ public class Repository {
 
     // checkout -- [file name]
     public static void checkout(String fileName) {
+        fileName = resolveTrackedPath(fileName);
         currentCommit = getCurrentCommit();
         List<String> commitFiles = currentCommit.getBlobNames();
         if (!commitFiles.contains(fileName)) {
             Utils.exitWithMessage("File does not exist in that commit.");
         }
         Blob blob = currentCommit.getBlobByName(fileName);
-        Utils.writeContents(Utils.join(CWD, fileName), blob.getContent());
+        blob.writeTo(Utils.join(CWD, fileName));
     }
 
     // checkout [commit id] -- [file name]
     public static void checkout(String commitId, String fileName) {
+        fileName = resolveTrackedPath(fileName);
         Commit commit = getCommitById(commitId);
         if (commit == null) {
             Utils.exitWithMessage("No commit with that id exists.");
@@ -215,7 +247,7 @@ public class Repository {
             Utils.exitWithMessage("File does not exist in that commit.");
         }
         Blob blob = commit.getBlobByName(fileName);
-        Utils.writeContents(Utils.join(CWD, fileName), blob.getContent());
+        blob.writeTo(Utils.join(CWD, fileName));
     }
 
     // checkout [branch name]
@@ -223,8 +255,7 @@ public class Repository {
         currentBranch = getCurrentBranch();
         currentCommit = getCurrentCommit();
 
-        List<String> branchList = Utils.plainFilenamesIn(HEADS_DIR);
-        if (!branchList.contains(branchName)) {
+        if (!Refs.exists(Refs.HEADS + branchName)) {
             Utils.exitWithMessage("No such branch exists.");
         }
         if (branchName.equals(currentBranch)) {
@@ -232,29 +263,17 @@ public class Repository {
         }
 
         Commit newCommit = getCommitByBranch(branchName);
-
-        List<String> originalFiles = currentCommit.getBlobNames();
-        List<String> checkFiles = newCommit.getBlobNames();
-
-        List<String> filesOnlyTrackedByCurr = getFilesOnlyTrackedByCurr(originalFiles, checkFiles);
-        List<String> filesOnlyTrackedByCheck = getFilesOnlyTrackedByCheck(originalFiles, checkFiles);
-        List<String> filesBothTracked = getFilesBothTracked(originalFiles, checkFiles);
-
-        deleteFiles(filesOnlyTrackedByCurr);
-        overwriteFiles(filesBothTracked, newCommit);
-        writeFiles(filesOnlyTrackedByCheck, newCommit);
-        clearStage();
+        checkoutCommit(currentCommit, newCommit);
 
         Utils.writeContents(HEAD_FILE, branchName);
     }
 
     public static void branch(String branchName) {
-        List<String> branchList = Utils.plainFilenamesIn(HEADS_DIR);
-        if (branchList.contains(branchName)) {
+        if (Refs.exists(Refs.HEADS + branchName)) {
             Utils.exitWithMessage("A branch with that name already exists.");
         }
         currentCommit = getCurrentCommit();
-        Utils.writeContents(Utils.join(HEADS_DIR, branchName), currentCommit.getId());
+        updateRef(branchName, currentCommit.getId(), "branch");
     }
 
     public static void rmBranch(String branchName) {
@@ -263,8 +282,7 @@ public class Repository {
         if (branchName.equals(currentBranch)) {
             Utils.exitWithMessage("Cannot remove the current branch.");
         }
-        File file = Utils.join(HEADS_DIR, branchName);
-        file.delete();
+        deleteRef(branchName, "rm-branch");
     }
 
     public static void reset(String commitId) {
@@ -275,21 +293,10 @@ public class Repository {
 
         currentCommit = getCurrentCommit();
         Commit commit = getCommitById(commitId);
-
-        List<String> originalFiles = currentCommit.getBlobNames();
-        List<String> checkFiles = commit.getBlobNames();
-
-        List<String> filesOnlyTrackedByCurr = getFilesOnlyTrackedByCurr(originalFiles, checkFiles);
-        List<String> filesOnlyTrackedByCheck = getFilesOnlyTrackedByCheck(originalFiles, checkFiles);
-        List<String> filesBothTracked = getFilesBothTracked(originalFiles, checkFiles);
-
-        deleteFiles(filesOnlyTrackedByCurr);
-        overwriteFiles(filesBothTracked, commit);
-        writeFiles(filesOnlyTrackedByCheck, commit);
-        clearStage();
+        checkoutCommit(currentCommit, commit);
 
         currentBranch = getCurrentBranch();
-        Utils.writeContents(Utils.join(HEADS_DIR, currentBranch), commit.getId());
+        updateRef(currentBranch, commit.getId(), "reset");
     }
 
     public static void merge(String branchName) {
@@ -318,14 +325,588 @@ public class Repository {
         String message = "Merged " + branchName + " into " + currentBranch + ".";
         Commit newCommit = getMergedCommit(splitPoint,currentCommit,mergeCommit,message);
         newCommit.save();
-        Utils.writeContents(Utils.join(HEADS_DIR, currentBranch), newCommit.getId());
+        updateRef(currentBranch, newCommit.getId(), "merge");
+        clearStage();
+    }
+
+    public static void cherryPick(String commitId) {
+        checkIfStageClean();
+        Commit commit = getCommitById(commitId);
+        if (commit == null) {
+            Utils.exitWithMessage("No commit with that id exists.");
+        }
+        if (!commit.hasParent()) {
+            Utils.exitWithMessage("Cannot cherry-pick the initial commit.");
+        }
+        currentCommit = getCurrentCommit();
+        TreeMap<String, String> tree = new TreeMap<>(currentCommit.getBlobMap());
+        if (!applyCommitDiff(tree, commit)) {
+            Utils.exitWithMessage("Encountered a merge conflict.");
+        }
+        if (tree.equals(currentCommit.getBlobMap())) {
+            Utils.exitWithMessage("No changes added to the commit.");
+        }
+        checkUntrackedInTheWay(currentCommit.getBlobMap(), tree);
+
+        Commit newCommit = new Commit(currentCommit.getId(), null, tree, commit.getMessage());
+        newCommit.save();
+        switchWorkingTree(currentCommit.getBlobMap(), tree);
+        currentBranch = getCurrentBranch();
+        updateRef(currentBranch, newCommit.getId(), "cherry-pick");
+    }
+
+    public static void rebase(String branchName) {
+        checkIfStageClean();
+        checkIfBranchExists(branchName);
+        currentBranch = getCurrentBranch();
+        if (currentBranch.equals(branchName)) {
+            Utils.exitWithMessage("Cannot rebase a branch onto itself.");
+        }
+        currentCommit = getCurrentCommit();
+        Commit ontoCommit = getCommitByBranch(branchName);
+        if (getDepthMap(currentCommit, 0).containsKey(ontoCommit.getId())) {
+            Utils.exitWithMessage("Current branch is up to date.");
+        }
+        Set<String> ontoAncestors = getDepthMap(ontoCommit, 0).keySet();
+        if (ontoAncestors.contains(currentCommit.getId())) {
+            checkUntrackedInTheWay(currentCommit.getBlobMap(), ontoCommit.getBlobMap());
+            switchWorkingTree(currentCommit.getBlobMap(), ontoCommit.getBlobMap());
+            updateRef(currentBranch, ontoCommit.getId(), "rebase");
+            Utils.exitWithMessage("Current branch fast-forwarded.");
+        }
+
+        // commits only reachable from the current branch, oldest first
+        LinkedList<Commit> toReplay = new LinkedList<>();
+        Commit commit = currentCommit;
+        while (!ontoAncestors.contains(commit.getId())) {
+            toReplay.addFirst(commit);
+            commit = getCommitById(commit.getParent());
+        }
+
+        // replay every commit on an in-memory tree; nothing is written until all of them apply
+        List<Commit> replayed = new ArrayList<>();
+        String parentId = ontoCommit.getId();
+        TreeMap<String, String> tree = new TreeMap<>(ontoCommit.getBlobMap());
+        for (Commit original : toReplay) {
+            TreeMap<String, String> before = new TreeMap<>(tree);
+            if (!applyCommitDiff(tree, original)) {
+                Utils.exitWithMessage("Encountered a merge conflict while replaying "
+                        + original.getId().substring(0, 7) + "; nothing was changed.");
+            }
+            if (tree.equals(before)) {
+                continue;  // already upstream
+            }
+            Commit newCommit = new Commit(parentId, null, new TreeMap<>(tree), original.getMessage());
+            replayed.add(newCommit);
+            parentId = newCommit.getId();
+        }
+        checkUntrackedInTheWay(currentCommit.getBlobMap(), tree);
+
+        for (Commit newCommit : replayed) {
+            newCommit.save();
+        }
+        switchWorkingTree(currentCommit.getBlobMap(), tree);
+        updateRef(currentBranch, parentId, "rebase");
+    }
+
+    public static void stash() {
+        currentCommit = getCurrentCommit();
+        addStage = getAddStage();
+        removeStage = getRemoveStage();
+        TreeMap<String, String> headMap = currentCommit.getBlobMap();
+
+        Stash.Entry entry = new Stash.Entry(currentCommit.getId(),
+                addStage.getBlobMap(), removeStage.getBlobMap());
+        Set<String> trackedFiles = new TreeSet<>(headMap.keySet());
+        trackedFiles.addAll(addStage.getBlobNames());
+        // files whose stat is unchanged keep their cached id and are not read
+        StatCache statCache = StatCache.readFrom(STAT_CACHE_FILE);
+        WorkingTreeScanner scanner = new WorkingTreeScanner(CWD, trackedFiles,
+                IgnoreRules.readFrom(IGNORE_FILE), statCache);
+        scanner.scan();
+        TreeMap<String, String> workingIds = scanner.getWorkingIds();
+        for (String fileName : trackedFiles) {
+            String stagedId = getStagedBlobId(fileName, headMap);
+            String workingId = workingIds.get(fileName);
+            if (workingId == null) {
+                if (stagedId != null) {
+                    entry.getDeletedFiles().add(fileName);
+                }
+            } else if (!workingId.equals(stagedId)) {
+                Blob blob = new Blob(fileName);
+                blob.save();  // no-op if the blob is already stored
+                entry.getWorkingBlobs().put(fileName, blob.getId());
+            }
+        }
+        scanner.updateStatCache();
+        statCache.saveTo(STAT_CACHE_FILE);
+        if (entry.isEmpty()) {
+            Utils.exitWithMessage("No local changes to save.");
+        }
+
+        Stash stash = Stash.readFrom(STASH_FILE);
+        stash.push(entry);
+        stash.saveTo(STASH_FILE);
+
+        // only the stashed files differ from HEAD, so only they are rewritten
+        for (String fileName : entry.getFileNames()) {
+            restoreWorkingFile(fileName, headMap.get(fileName));
+        }
         clearStage();
     }
 
+    public static void stashPop() {
+        Stash stash = Stash.readFrom(STASH_FILE);
+        if (stash.isEmpty()) {
+            Utils.exitWithMessage("No stash entries found.");
+        }
+        addStage = getAddStage();
+        removeStage = getRemoveStage();
+        if (!addStage.isEmpty() || !removeStage.isEmpty()) {
+            Utils.exitWithMessage("You have uncommitted changes.");
+        }
+        currentCommit = getCurrentCommit();
+        TreeMap<String, String> headMap = currentCommit.getBlobMap();
+        Stash.Entry entry = stash.pop();
+        TreeMap<String, String> baseMap = entry.getBaseCommitId().equals(currentCommit.getId())
+                ? headMap : getCommitById(entry.getBaseCommitId()).getBlobMap();
+
+        // check every file before writing any, so a refused pop changes nothing
+        List<String> filesToWrite = new ArrayList<>();
+        for (String fileName : entry.getFileNames()) {
+            String targetId = entry.getWorkingBlobId(fileName);
+            // a file committed since the stash would lose that commit's change
+            String headId = headMap.get(fileName);
+            if (!Objects.equals(baseMap.get(fileName), headId) && !Objects.equals(headId, targetId)) {
+                Utils.exitWithMessage("A stashed file has been changed since the stash; "
+                        + "check out the stash's commit to pop it.");
+            }
+            File file = Utils.join(CWD, fileName);
+            if (!file.exists()) {
+                if (targetId != null) {
+                    filesToWrite.add(fileName);
+                }
+                continue;
+            }
+            String currentId = Blob.idOf(fileName, file);
+            if (currentId.equals(targetId)) {
+                continue;
+            }
+            if (!headMap.containsKey(fileName)) {
+                Utils.exitWithMessage("There is an untracked file in the way; delete it, or add and commit it first.");
+            }
+            if (!currentId.equals(headMap.get(fileName))) {
+                Utils.exitWithMessage("Your local changes would be overwritten by stash pop.");
+            }
+            filesToWrite.add(fileName);
+        }
+
+        for (String fileName : filesToWrite) {
+            restoreWorkingFile(fileName, entry.getWorkingBlobId(fileName));
+        }
+        for (Map.Entry<String, String> added : entry.getAddedBlobs().entrySet()) {
+            addStage.add(added.getKey(), added.getValue());
+        }
+        for (Map.Entry<String, String> removed : entry.getRemovedBlobs().entrySet()) {
+            removeStage.add(removed.getKey(), removed.getValue());
+        }
+        addStage.saveTo(ADD_STAGE_FILE);
+        removeStage.saveTo(REMOVE_STAGE_FILE);
+        stash.saveTo(STASH_FILE);
+    }
+
+    public static void bisectStart() {
+        if (BISECT_FILE.exists()) {
+            Utils.exitWithMessage("Already bisecting; use bisect reset first.");
+        }
+        checkIfStageClean();
+        currentBranch = getCurrentBranch();
+        currentCommit = getCurrentCommit();
+        // bisect rewrites tracked files as it moves, so none may have unsaved edits
+        checkIfWorkingTreeClean(currentCommit.getBlobMap());
+        new Bisect(currentBranch, currentCommit.getId()).saveTo(BISECT_FILE);
+    }
+
+    /**
+     * Marks the commit with COMMITID, or the one being tested if COMMITID is
+     * null, as good, bad or skipped according to VERDICT.
+     */
+    public static void bisectMark(String verdict, String commitId) {
+        Bisect bisect = getBisect();
+        Commit commit = getCommitById(commitId == null ? bisect.getCheckedOutId() : commitId);
+        if (commit == null) {
+            Utils.exitWithMessage("No commit with that id exists.");
+        }
+        markCommit(bisect, verdict, commit.getId());
+        bisect.saveTo(BISECT_FILE);
+        if (bisect.isReady()) {
+            checkoutNextCandidate(bisect);
+        }
+    }
+
+    /**
+     * Runs COMMAND in the working directory on every commit bisect picks and
+     * marks it by the exit code: 0 is good, 125 is skip, anything else below
+     * 128 is bad. A higher code stops the run.
+     */
+    public static void bisectRun(List<String> command) {
+        Bisect bisect = getBisect();
+        if (!bisect.isReady()) {
+            Utils.exitWithMessage("Bisect run needs a good and a bad commit.");
+        }
+        while (checkoutNextCandidate(bisect)) {
+            int exitCode;
+            try {
+                Process process = new ProcessBuilder(command).directory(CWD).inheritIO().start();
+                exitCode = process.waitFor();
+            } catch (IOException excp) {
+                Utils.exitWithMessage("Cannot run " + command.get(0) + ".");
+                return;
+            } catch (InterruptedException excp) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (exitCode >= 128) {
+                Utils.exitWithMessage("Bisect run stopped: the command exited with " + exitCode + ".");
+            }
+            String verdict = exitCode == 0 ? "good" : exitCode == 125 ? "skip" : "bad";
+            markCommit(bisect, verdict, bisect.getCheckedOutId());
+            bisect.saveTo(BISECT_FILE);
+        }
+    }
+
+    public static void bisectReset() {
+        Bisect bisect = getBisect();
+        TreeMap<String, String> testedMap = getCommitById(bisect.getCheckedOutId()).getBlobMap();
+        TreeMap<String, String> branchMap = getCommitByBranch(bisect.getOriginalBranch()).getBlobMap();
+        checkUntrackedInTheWay(testedMap, branchMap);
+        switchWorkingTree(testedMap, branchMap);
+        BISECT_FILE.delete();
+    }
+
+    public static void blame(String fileName) {
+        fileName = resolveTrackedPath(fileName);
+        currentCommit = getCurrentCommit();
+        if (!currentCommit.getBlobMap().containsKey(fileName)) {
+            Utils.exitWithMessage("File does not exist in that commit.");
+        }
+        BLAME_DIR.mkdir();
+        List<String> commitIds = new ArrayList<>();
+        List<String> lines = Blame.attribute(fileName, currentCommit, Repository::getCommitById,
+                BLAME_DIR, commitIds);
+
+        // a line of blame looks like:
+        // 3e8bf1d (Sat Nov 11 12:30:00 2017 -0800  12) content of line 12
+        Map<String, String> timeStamps = new HashMap<>();
+        String lineFormat = "%" + String.valueOf(lines.size()).length() + "d";
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < lines.size(); i++) {
+            String commitId = commitIds.get(i);
+            String timeStamp = timeStamps.computeIfAbsent(commitId,
+                    id -> getCommitById(id).getTimeStamp());
+            out.append(commitId, 0, 7).append(" (").append(timeStamp).append(' ')
+                    .append(String.format(lineFormat, i + 1)).append(") ")
+                    .append(lines.get(i)).append('\n');
+        }
+        System.out.print(out);
+    }
+
+    /** Writes every branch and its history as a fast-import stream to FILENAME, or stdout if null. */
+    public static void fastExport(String fileName) {
+        TreeMap<String, String> branches = Refs.list(Refs.HEADS);
+        try (OutputStream out = fileName == null
+                ? new FileOutputStream(FileDescriptor.out) : new FileOutputStream(Utils.join(CWD, fileName))) {
+            new FastExport(out, Repository::getCommitById).run(branches, getRootCommitId());
+        } catch (IOException excp) {
+            Utils.exitWithMessage("Cannot write " + fileName + ".");
+        }
+    }
+
+    /**
+     * Reads a fast-import stream from FILENAME, or stdin if null. The working
+     * directory is left alone, also when the current branch moves.
+     */
+    public static void fastImport(String fileName) {
+        Map<String, String> branches = null;
+        try (InputStream in = fileName == null ? System.in : new FileInputStream(Utils.join(CWD, fileName))) {
+            branches = new FastImport(in, getRootCommitId(), Repository::getCommitById).run();
+        } catch (IOException excp) {
+            Utils.exitWithMessage("Cannot read " + fileName + ".");
+        }
+        // every object is stored by now, so the branches can only point at complete history
+        for (Map.Entry<String, String> branch : branches.entrySet()) {
+            updateRef(branch.getKey(), branch.getValue(), "fast-import");
+        }
+    }
+
+    /** Prints the last COUNT moves of BRANCHNAME, or of the current branch if null, newest first. */
+    public static void reflog(String branchName, int count) {
+        if (branchName == null) {
+            branchName = getCurrentBranch();
+        }
+        File log = Utils.join(LOGS_DIR, branchName);
+        if (!log.exists()) {
+            Utils.exitWithMessage("No reflog for that branch.");
+        }
+        // a line of reflog looks like:
+        // master@{0}: reset 4975af1 -> 3e8bf1d (Sat Nov 11 12:30:00 2017 -0800)
+        StringBuilder out = new StringBuilder();
+        int i = 0;
+        for (RefLog.Entry entry : RefLog.readLast(log, count)) {
+            out.append(branchName).append("@{").append(i++).append("}: ")
+                    .append(entry.getOperation()).append(' ')
+                    .append(shortId(entry.getOldId())).append(" -> ").append(shortId(entry.getNewId()))
+                    .append(" (").append(entry.getTimeStamp()).append(")\n");
+        }
+        System.out.print(out);
+    }
+
+    /**
+     * Tags the commit with COMMITID, or the current commit if null, as
+     * TAGNAME. The tag is annotated with MESSAGE unless MESSAGE is null.
+     */
+    public static void tag(String tagName, String commitId, String message) {
+        checkTagName(tagName);
+        if (Refs.exists(Refs.TAGS + tagName)) {
+            Utils.exitWithMessage("A tag with that name already exists.");
+        }
+        Commit commit = commitId == null ? getCurrentCommit() : getCommitById(commitId);
+        if (commit == null) {
+            Utils.exitWithMessage("No commit with that id exists.");
+        }
+        if (message == null) {
+            Refs.write(Refs.TAGS + tagName, commit.getId());
+            return;
+        }
+        Tag tag = new Tag(commit.getId(), tagName, message);
+        tag.save();
+        Refs.write(Refs.TAGS + tagName, tag.getId());
+    }
+
+    public static void rmTag(String tagName) {
+        checkTagName(tagName);
+        if (!Refs.exists(Refs.TAGS + tagName)) {
+            Utils.exitWithMessage("A tag with that name does not exist.");
+        }
+        Refs.delete(Refs.TAGS + tagName);
+    }
+
+    // a tag is a file in .gitlet/refs/tags, so its name must not reach outside it
+    private static void checkTagName(String tagName) {
+        if (tagName.isEmpty() || tagName.contains("/") || tagName.contains("\\")
+                || tagName.contains("..")) {
+            Utils.exitWithMessage("Not a valid tag name.");
+        }
+    }
+
+    public static void printTags() {
+        // a line of the tag list looks like (the message only for annotated tags):
+        // v1.0 3e8bf1d First release.
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<String, String> ref : Refs.list(Refs.TAGS).entrySet()) {
+            Tag tag = Tag.load(ref.getValue());
+            String commitId = tag == null ? ref.getValue() : tag.getTarget();
+            out.append(ref.getKey()).append(' ').append(commitId, 0, 7);
+            if (tag != null) {
+                out.append(' ').append(tag.getMessage());
+            }
+            out.append('\n');
+        }
+        System.out.print(out);
+    }
+
+    public static void packRefs() {
+        Refs.pack();
+    }
+
+    public static void fsck() {
+        // everything refs, reflogs, the stash and the stage point at is reachable
+        Map<String, String> roots = new TreeMap<>();
+        for (String prefix : new String[]{Refs.HEADS, Refs.TAGS}) {
+            for (Map.Entry<String, String> ref : Refs.list(prefix).entrySet()) {
+                roots.put(prefix + ref.getKey(), ref.getValue());
+            }
+        }
+        List<String> logs = Utils.plainFilenamesIn(LOGS_DIR);
+        for (String branchName : logs == null ? List.<String>of() : logs) {
+            int n = 0;
+            for (RefLog.Entry record : RefLog.readLast(Utils.join(LOGS_DIR, branchName),
+                    Integer.MAX_VALUE)) {
+                String name = "reflog " + branchName + "@{" + n++ + "}";
+                if (record.getOldId() != null) {
+                    roots.put(name + " old", record.getOldId());
+                }
+                if (record.getNewId() != null) {
+                    roots.put(name + " new", record.getNewId());
+                }
+            }
+        }
+        int i = 0;
+        for (Stash.Entry entry : Stash.readFrom(STASH_FILE).getEntries()) {
+            String name = "stash@{" + i++ + "}";
+            roots.put(name, entry.getBaseCommitId());
+            for (Map<String, String> blobs : List.of(entry.getAddedBlobs(),
+                    entry.getRemovedBlobs(), entry.getWorkingBlobs())) {
+                for (String blobId : blobs.values()) {
+                    roots.put(name + " " + blobId, blobId);
+                }
+            }
+        }
+        for (Map.Entry<String, String> staged : getAddStage().getBlobMap().entrySet()) {
+            roots.put("stage " + staged.getKey(), staged.getValue());
+        }
+
+        StringBuilder out = new StringBuilder();
+        for (String problem : new Fsck(OBJECTS_DIR).run(roots)) {
+            out.append(problem).append('\n');
+        }
+        System.out.print(out);
+    }
 
     /**
      * ---------------------- functions below are designed to help core commands ----------------------
      */
+    private static void checkIfStageClean() {
+        addStage = getAddStage();
+        removeStage = getRemoveStage();
+        if (!addStage.isEmpty() || !removeStage.isEmpty()) {
+            Utils.exitWithMessage("You have uncommitted changes.");
+        }
+    }
+
+    /** Exits if a file tracked in HEADMAP is modified or deleted in the working directory. */
+    private static void checkIfWorkingTreeClean(TreeMap<String, String> headMap) {
+        StatCache statCache = StatCache.readFrom(STAT_CACHE_FILE);
+        WorkingTreeScanner scanner = new WorkingTreeScanner(CWD, headMap.keySet(),
+                IgnoreRules.readFrom(IGNORE_FILE), statCache);
+        scanner.scan();
+        scanner.updateStatCache();
+        statCache.saveTo(STAT_CACHE_FILE);
+        if (!scanner.getWorkingIds().equals(headMap)) {
+            Utils.exitWithMessage("You have uncommitted changes.");
+        }
+    }
+
+    /**
+     * Applies the changes COMMIT made to its first parent onto TREE, comparing
+     * blob ids only. Returns false, leaving TREE partially updated, if a file
+     * COMMIT changed has different content in TREE than in the parent.
+     */
+    private static boolean applyCommitDiff(TreeMap<String, String> tree, Commit commit) {
+        TreeMap<String, String> before = getCommitById(commit.getParent()).getBlobMap();
+        TreeMap<String, String> after = commit.getBlobMap();
+        Set<String> fileNames = new HashSet<>(before.keySet());
+        fileNames.addAll(after.keySet());
+        for (String fileName : fileNames) {
+            String oldId = before.get(fileName);
+            String newId = after.get(fileName);
+            if (Objects.equals(oldId, newId)) {
+                continue;
+            }
+            String treeId = tree.get(fileName);
+            if (Objects.equals(treeId, newId)) {
+                continue;  // the same change is already there
+            }
+            if (!Objects.equals(treeId, oldId)) {
+                return false;
+            }
+            if (newId == null) {
+                tree.remove(fileName);
+            } else {
+                tree.put(fileName, newId);
+            }
+        }
+        return true;
+    }
+
+    // exit if switching from FROM to TO would overwrite a file FROM does not track
+    private static void checkUntrackedInTheWay(TreeMap<String, String> from, TreeMap<String, String> to) {
+        for (String fileName : to.keySet()) {
+            if (!from.containsKey(fileName) && Utils.join(CWD, fileName).exists()) {
+                Utils.exitWithMessage("There is an untracked file in the way; delete it, or add and commit it first.");
+            }
+        }
+    }
+
+    // rewrite only the working files whose blob id differs between FROM and TO
+    private static void switchWorkingTree(TreeMap<String, String> from, TreeMap<String, String> to) {
+        for (String fileName : from.keySet()) {
+            if (!to.containsKey(fileName)) {
+                deleteWorkingFile(fileName);
+            }
+        }
+        TreeMap<String, String> changedFiles = new TreeMap<>();
+        for (Map.Entry<String, String> entry : to.entrySet()) {
+            if (!entry.getValue().equals(from.get(entry.getKey()))) {
+                changedFiles.put(entry.getKey(), entry.getValue());
+            }
+        }
+        CheckoutWriter.write(changedFiles);
+        clearStage();
+    }
+
+    // replace the files of FROM in the working directory by those of TO, then clear the stage
+    private static void checkoutCommit(Commit from, Commit to) {
+        TreeMap<String, String> fromMap = from.getBlobMap();
+        TreeMap<String, String> toMap = to.getBlobMap();
+        checkUntrackedInTheWay(fromMap, toMap);
+        for (String fileName : fromMap.keySet()) {
+            if (!toMap.containsKey(fileName)) {
+                deleteWorkingFile(fileName);
+            }
+        }
+        CheckoutWriter.write(toMap);
+        clearStage();
+    }
+
+    // the blob id FILENAME would be committed with, or null if it would be removed
+    private static String getStagedBlobId(String fileName, TreeMap<String, String> headMap) {
+        if (addStage.getBlobMap().containsKey(fileName)) {
+            return addStage.getBlobMap().get(fileName);
+        }
+        if (removeStage.getBlobMap().containsKey(fileName)) {
+            return null;
+        }
+        return headMap.get(fileName);
+    }
+
+    // write the content of blob BLOBID to FILENAME, or delete the file if BLOBID is null
+    private static void restoreWorkingFile(String fileName, String blobId) {
+        if (blobId == null) {
+            deleteWorkingFile(fileName);
+            return;
+        }
+        Blob.load(blobId).writeTo(Utils.join(CWD, fileName));
+    }
+
+    // delete the working file FILENAME, along with directories it leaves empty
+    private static void deleteWorkingFile(String fileName) {
+        File file = Utils.join(CWD, fileName);
+        if (!file.exists()) {
+            return;
+        }
+        Utils.restrictedDelete(file);
+        File dir = file.getParentFile();
+        while (!dir.equals(CWD) && dir.delete()) {   // delete() refuses non-empty directories
+            dir = dir.getParentFile();
+        }
+    }
+
+    // the repository-relative path FILENAME is tracked under, or null if it lies outside the repository
+    private static String toTrackedPath(String fileName) {
+        String path = PathTable.relativize(CWD, Utils.join(CWD, fileName));
+        if (path == null || path.equals(".gitlet") || path.startsWith(".gitlet/")) {
+            return null;
+        }
+        return path;
+    }
+
+    // like toTrackedPath, but keeps FILENAME as given if it cannot be tracked
+    private static String resolveTrackedPath(String fileName) {
+        String path = toTrackedPath(fileName);
+        return path == null ? fileName : path;
+    }
+
     private static Commit getMergedCommit(Commit splitCommit,Commit currentCommit,Commit mergeCommit,String message){
         addStage = getAddStage();
         removeStage = getRemoveStage();
@@ -333,8 +914,9 @@ public class Repository {
         List<String> writeFiles = getWriteFiles(splitCommit,currentCommit,mergeCommit);
         List<String> deleteFiles = getDeleteFiles(splitCommit,currentCommit,mergeCommit);
 
+        checkUntrackedFiles(writeFiles);  // before anything is written
         overwriteFiles(overwriteFiles,mergeCommit);
-        writeFiles(writeFiles,mergeCommit);
+        overwriteFiles(writeFiles,mergeCommit);
         deleteFiles(deleteFiles);
 
         dealWithConflict(splitCommit,currentCommit,mergeCommit);
@@ -408,8 +990,9 @@ public class Repository {
                 }
                 String content = "<<<<<<< HEAD\n" + currentContent + "=======\n" + mergeContent + ">>>>>>>\n";
                 File file = Utils.join(CWD,fileName);
+                file.getParentFile().mkdirs();
                 Utils.writeContents(file,content);
-                addStage.add(new Blob(file));
+                addStage.add(new Blob(fileName));
             }
         }
         if(conflict==true){
@@ -471,7 +1054,7 @@ public class Repository {
         return res;
     }
 
-    private static Commit getSplitPoint(Commit c1, Commit c2) {
+    static Commit getSplitPoint(Commit c1, Commit c2) {
         HashMap<String, Integer> depthMap1 = getDepthMap(c1, 0);
         HashMap<String, Integer> depthMap2 = getDepthMap(c2, 0);
         String commitId = "";
@@ -504,76 +1087,174 @@ public class Repository {
     }
 
     private static void checkIfBranchExists(String branchName) {
-        List<String> branchList = Utils.plainFilenamesIn(HEADS_DIR);
-        if (!branchList.contains(branchName)) {
+        if (!Refs.exists(Refs.HEADS + branchName)) {
             Utils.exitWithMessage("A branch with that name does not exist.");
         }
     }
 
-    private static void writeFiles(List<String> filesOnlyTrackedByCheck, Commit newCommit) {
+    private static void checkUntrackedFiles(List<String> filesOnlyTrackedByCheck) {
         for (String fileName : filesOnlyTrackedByCheck) {
             File file = Utils.join(CWD, fileName);
             if (file.exists()) {
                 Utils.exitWithMessage("There is an untracked file in the way; delete it, or add and commit it first.");
             }
         }
-        overwriteFiles(filesOnlyTrackedByCheck, newCommit);
     }
 
     private static void overwriteFiles(List<String> filesBothTracked, Commit commit) {
+        TreeMap<String, String> blobMap = commit.getBlobMap();
+        TreeMap<String, String> files = new TreeMap<>();
         for (String fileName : filesBothTracked) {
-            Blob blob = commit.getBlobByName(fileName);
-            Utils.writeContents(Utils.join(CWD, fileName), blob.getContent());
+            files.put(fileName, blobMap.get(fileName));
         }
+        CheckoutWriter.write(files);
     }
 
     private static void deleteFiles(List<String> filesOnlyTrackedByCurr) {
         for (String fileName : filesOnlyTrackedByCurr) {
-            File file = Utils.join(CWD, fileName);
-            Utils.restrictedDelete(file);
+            deleteWorkingFile(fileName);
         }
     }
 
-    private static List<String> getFilesOnlyTrackedByCheck(List<String> originalFiles, List<String> checkFiles) {
-        List<String> res = new ArrayList<>();
-        for (String file : checkFiles) {
-            if (!originalFiles.contains(file)) {
-                res.add(file);
-            }
+    private static Bisect getBisect() {
+        Bisect bisect = Bisect.readFrom(BISECT_FILE);
+        if (bisect == null) {
+            Utils.exitWithMessage("Not bisecting.");
         }
-        return res;
+        return bisect;
     }
 
-    private static List<String> getFilesBothTracked(List<String> originalFiles, List<String> checkFiles) {
-        List<String> res = new ArrayList<>();
-        for (String file : originalFiles) {
-            if (checkFiles.contains(file)) {
-                res.add(file);
-            }
+    private static void markCommit(Bisect bisect, String verdict, String commitId) {
+        switch (verdict) {
+            case "good":
+                bisect.markGood(commitId);
+                break;
+            case "bad":
+                bisect.markBad(commitId);
+                break;
+            default:
+                bisect.markSkipped(commitId);
         }
-        return res;
     }
 
-    private static List<String> getFilesOnlyTrackedByCurr(List<String> originalFiles, List<String> checkFiles) {
-        List<String> res = new ArrayList<>();
-        for (String file : originalFiles) {
-            if (!checkFiles.contains(file)) {
-                res.add(file);
-            }
+    // move the working tree to the next commit to test; returns false once bisect is over
+    private static boolean checkoutNextCandidate(Bisect bisect) {
+        List<String> candidates = bisect.getCandidates(Repository::getCommitById);
+        if (candidates.isEmpty()) {
+            System.out.println("The bad commit is an ancestor of a good commit.");
+            return false;
         }
-        return res;
+        if (candidates.size() == 1) {
+            System.out.println(bisect.getBadId() + " is the first bad commit");
+            printCommitLog(getCommitById(bisect.getBadId()));
+            return false;
+        }
+        String nextId = bisect.pickMidpoint(candidates);
+        if (nextId == null) {
+            System.out.println("There are only skipped commits left to test.");
+            return false;
+        }
+
+        // only the files that differ from the commit tested last are rewritten
+        Commit next = getCommitById(nextId);
+        TreeMap<String, String> testedMap = getCommitById(bisect.getCheckedOutId()).getBlobMap();
+        checkUntrackedInTheWay(testedMap, next.getBlobMap());
+        switchWorkingTree(testedMap, next.getBlobMap());
+        bisect.setCheckedOutId(nextId);
+        bisect.saveTo(BISECT_FILE);
+
+        int left = (candidates.size() - 1) / 2;
+        int steps = 32 - Integer.numberOfLeadingZeros(left);
+        System.out.println("Bisecting: " + left + " revisions left to test after this (roughly "
+                + steps + " steps)");
+        System.out.println("[" + nextId + "] " + next.getMessage());
+        return true;
+    }
+
+    // the id of the initial commit, which every history starts from
+    private static String getRootCommitId() {
+        Commit commit = getCurrentCommit();
+        while (commit.hasParent()) {
+            commit = getCommitById(commit.getParent());
+        }
+        return commit.getId();
+    }
+
+    // point BRANCHNAME at COMMITID, recording the move as OPERATION in its reflog
+    private static void updateRef(String branchName, String commitId, String operation) {
+        String oldId = Refs.read(Refs.HEADS + branchName);
+        Refs.write(Refs.HEADS + branchName, commitId);
+        RefLog.append(Utils.join(LOGS_DIR, branchName), oldId, commitId, operation);
+    }
+
+    // remove BRANCHNAME, recording the commit it pointed at in its reflog
+    private static void deleteRef(String branchName, String operation) {
+        String oldId = Refs.read(Refs.HEADS + branchName);
+        Refs.delete(Refs.HEADS + branchName);
+        RefLog.append(Utils.join(LOGS_DIR, branchName), oldId, null, operation);
+    }
+
+    private static String shortId(String id) {
+        return id == null ? "0000000" : id.substring(0, 7);
     }
 
     private static Commit getCommitByBranch(String branchName) {
-        String commitId = Utils.readContentsAsString(Utils.join(HEADS_DIR, branchName));
+        String commitId = Refs.read(Refs.HEADS + branchName);
         return Utils.readObject(Utils.join(OBJECTS_DIR, commitId), Commit.class);
     }
 
     private static void printModifiedAndUntrackedInfos() {
+        currentCommit = getCurrentCommit();
+        addStage = getAddStage();
+        removeStage = getRemoveStage();
+        TreeMap<String, String> headMap = currentCommit.getBlobMap();
+        TreeMap<String, String> addMap = addStage.getBlobMap();
+        TreeMap<String, String> removeMap = removeStage.getBlobMap();
+
+        Set<String> trackedFiles = new HashSet<>(headMap.keySet());
+        trackedFiles.addAll(addMap.keySet());
+        StatCache statCache = StatCache.readFrom(STAT_CACHE_FILE);
+        WorkingTreeScanner scanner = new WorkingTreeScanner(CWD, trackedFiles,
+                IgnoreRules.readFrom(IGNORE_FILE), statCache);
+        scanner.scan();
+        TreeMap<String, String> workingIds = scanner.getWorkingIds();
+        TreeSet<String> untrackedFiles = scanner.getUntrackedFiles();
+
+        // a file is modified if its working copy differs from what would be committed
+        TreeMap<String, String> modifiedFiles = new TreeMap<>();
+        for (String fileName : trackedFiles) {
+            String expectedId;
+            if (addMap.containsKey(fileName)) {
+                expectedId = addMap.get(fileName);
+            } else if (removeMap.containsKey(fileName)) {
+                if (workingIds.containsKey(fileName)) {
+                    untrackedFiles.add(fileName);  // re-created after rm
+                }
+                continue;
+            } else {
+                expectedId = headMap.get(fileName);
+            }
+            String workingId = workingIds.get(fileName);
+            if (workingId == null) {
+                modifiedFiles.put(fileName, "deleted");
+            } else if (!workingId.equals(expectedId)) {
+                modifiedFiles.put(fileName, "modified");
+            }
+        }
+
         System.out.println("=== Modifications Not Staged For Commit ===");
+        for (Map.Entry<String, String> entry : modifiedFiles.entrySet()) {
+            System.out.println(entry.getKey() + " (" + entry.getValue() + ")");
+        }
         System.out.println();
         System.out.println("=== Untracked Files ===");
+        for (String fileName : untrackedFiles) {
+            System.out.println(fileName);
+        }
         System.out.println();
+
+        scanner.updateStatCache();
+        statCache.saveTo(STAT_CACHE_FILE);
     }
 
     private static void printRemoveStage() {
@@ -598,8 +1279,7 @@ public class Repository {
         currentBranch = getCurrentBranch();
         System.out.println("=== Branches ===");
         System.out.println("*" + currentBranch);
-        List<String> branches = Utils.plainFilenamesIn(HEADS_DIR);
-        for (String branch : branches) {
+        for (String branch : Refs.list(Refs.HEADS).keySet()) {
             if (!branch.equals(currentBranch)) {
                 System.out.println(branch);
             }
@@ -608,6 +1288,12 @@ public class Repository {
     }
 
     private static void printCommitLog(Commit commit) {
+        StringBuilder out = new StringBuilder();
+        appendCommitLog(out, commit);
+        System.out.print(out);
+    }
+
+    private static void appendCommitLog(StringBuilder out, Commit commit) {
         // the log of commit looks like:
         // ===
         // commit 3e8bf1d794ca2e9ef8a4007275acf3751c7170ff
@@ -615,14 +1301,21 @@ public class Repository {
         // Date: Sat Nov 11 12:30:00 2017 -0800
         // Merged development into master.
 
-        System.out.println("===");
-        System.out.println("commit " + commit.getId());
+        out.append("===\ncommit ").append(commit.getId()).append('\n');
         if (commit.hasSecondParent()) {
-            System.out.println("Merge: " + commit.getParent().substring(0, 7) + " " + commit.getSecondParent().substring(0, 7));
+            out.append("Merge: ").append(commit.getParent(), 0, 7).append(' ')
+                    .append(commit.getSecondParent(), 0, 7).append('\n');
+        }
+        out.append("Date: ").append(commit.getTimeStamp()).append('\n')
+                .append(commit.getMessage()).append("\n\n");
+    }
+
+    // print what OUT holds once it is large enough, or whatever is left if FINISHED
+    private static void flushLog(StringBuilder out, boolean finished) {
+        if (finished || out.length() >= LOG_BUFFER_SIZE) {
+            System.out.print(out);
+            out.setLength(0);
         }
-        System.out.println("Date: " + commit.getTimeStamp());
-        System.out.println(commit.getMessage());
-        System.out.println();
     }
 
     private static TreeMap<String, String> calFinalMap(TreeMap<String, String> original,
@@ -651,7 +1344,7 @@ public class Repository {
 
     private static Commit getCurrentCommit() {
         String currentBranch = getCurrentBranch();
-        String commitId = Utils.readContentsAsString(Utils.join(HEADS_DIR, currentBranch));
+        String commitId = Refs.read(Refs.HEADS + currentBranch);
         return getCommitById(commitId);
     }
 
@@ -1,6 +1,9 @@
 package gitlet;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -11,7 +14,7 @@ import java.util.TreeMap;
  * @create: 2024-01-26 15:24
  */
 public class Stage implements Serializable {
-    private TreeMap<String, String> blobMap;   // key: blob name, value: blob id
+    private transient TreeMap<String, String> blobMap;   // key: file path, value: blob id, see writeObject
 
     public Stage() {
         blobMap = new TreeMap<>();
@@ -29,6 +32,10 @@ public class Stage implements Serializable {
         blobMap.put(blob.getFileName(), blob.getId());
     }
 
+    public void add(String fileName, String blobId) {
+        blobMap.put(fileName, blobId);
+    }
+
     public void delete(Blob blob) {
         blobMap.remove(blob.getFileName());
     }
@@ -59,4 +66,14 @@ public class Stage implements Serializable {
         blobNames.addAll(blobMap.keySet());
         return blobNames;
     }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        PathTable.writeBlobMap(out, blobMap);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        blobMap = PathTable.readBlobMap(in);
+    }
 }
@@ -0,0 +1,121 @@
+package gitlet;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * The stack of stashed changes, newest first.
+ * <p>
+ * An entry only records blob ids: staged blobs are already in the object
+ * store, and a modified working file is stored once as an ordinary blob,
+ * so stashing never copies contents that gitlet already has.
+ *
+ * @author Jiayi Mao
+ */
+public class Stash implements Serializable {
+    private LinkedList<Entry> entries;
+
+    public Stash() {
+        entries = new LinkedList<>();
+    }
+
+    public static Stash readFrom(File file) {
+        if (!file.exists()) {
+            return new Stash();
+        }
+        return Utils.readObject(file, Stash.class);
+    }
+
+    public void saveTo(File file) {
+        Utils.writeObject(file, this);
+    }
+
+    public void push(Entry entry) {
+        entries.addFirst(entry);
+    }
+
+    public Entry pop() {
+        return entries.removeFirst();
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /** Returns the entries, newest first. */
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /** One stashed state of the stage and the working directory. */
+    public static class Entry implements Serializable {
+        private String baseCommitId;
+        private TreeMap<String, String> addedBlobs;     // key: file name, value: blob id
+        private TreeMap<String, String> removedBlobs;   // key: file name, value: blob id
+        private TreeMap<String, String> workingBlobs;   // unstaged modifications
+        private TreeSet<String> deletedFiles;           // deleted but not staged for removal
+
+        public Entry(String baseCommitId, TreeMap<String, String> addedBlobs,
+                     TreeMap<String, String> removedBlobs) {
+            this.baseCommitId = baseCommitId;
+            this.addedBlobs = new TreeMap<>(addedBlobs);
+            this.removedBlobs = new TreeMap<>(removedBlobs);
+            this.workingBlobs = new TreeMap<>();
+            this.deletedFiles = new TreeSet<>();
+        }
+
+        public String getBaseCommitId() {
+            return baseCommitId;
+        }
+
+        public TreeMap<String, String> getAddedBlobs() {
+            return addedBlobs;
+        }
+
+        public TreeMap<String, String> getRemovedBlobs() {
+            return removedBlobs;
+        }
+
+        public TreeMap<String, String> getWorkingBlobs() {
+            return workingBlobs;
+        }
+
+        public TreeSet<String> getDeletedFiles() {
+            return deletedFiles;
+        }
+
+        public boolean isEmpty() {
+            return addedBlobs.isEmpty() && removedBlobs.isEmpty()
+                    && workingBlobs.isEmpty() && deletedFiles.isEmpty();
+        }
+
+        /** Returns every file name this entry touches. */
+        public TreeSet<String> getFileNames() {
+            TreeSet<String> names = new TreeSet<>();
+            names.addAll(addedBlobs.keySet());
+            names.addAll(removedBlobs.keySet());
+            names.addAll(workingBlobs.keySet());
+            names.addAll(deletedFiles);
+            return names;
+        }
+
+        /**
+         * Returns the blob id the working file NAME should have once this
+         * entry is restored, or null if the file should not exist.
+         */
+        public String getWorkingBlobId(String name) {
+            if (workingBlobs.containsKey(name)) {
+                return workingBlobs.get(name);
+            }
+            if (deletedFiles.contains(name) || removedBlobs.containsKey(name)) {
+                return null;
+            }
+            return addedBlobs.get(name);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package gitlet;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Size, modification time and blob id of every tracked working file as of
+ * the last scan, so unchanged files do not have to be hashed again.
+ * <p>
+ * An entry whose modification time falls within RACY_WINDOW_MILLIS of the
+ * moment the cache was saved is not trusted: the file may have changed
+ * again within the same timestamp granule without its metadata changing.
+ *
+ * @author Jiayi Mao
+ */
+class StatCache implements Serializable {
+    private static final long RACY_WINDOW_MILLIS = 1000;
+
+    private HashMap<String, Entry> entries;  // key: file path, value: stat entry
+    private long savedAt;
+
+    StatCache() {
+        entries = new HashMap<>();
+    }
+
+    static StatCache readFrom(File file) {
+        if (!file.exists()) {
+            return new StatCache();
+        }
+        try {
+            return Utils.readObject(file, StatCache.class);
+        } catch (IllegalArgumentException excp) {
+            return new StatCache();  // a broken cache only costs a rehash
+        }
+    }
+
+    void saveTo(File file) {
+        savedAt = System.currentTimeMillis();
+        Utils.writeObject(file, this);
+    }
+
+    /** Returns the cached blob id of PATH if its SIZE and MTIME still match, else null. */
+    String lookup(String path, long size, long mtime) {
+        Entry entry = entries.get(path);
+        if (entry == null || entry.size != size || entry.mtime != mtime
+                || mtime >= savedAt - RACY_WINDOW_MILLIS) {
+            return null;
+        }
+        return entry.blobId;
+    }
+
+    /** Replaces the contents of this cache with FRESH. */
+    void replaceWith(Map<String, Entry> fresh) {
+        entries = new HashMap<>(fresh);
+    }
+
+    static class Entry implements Serializable {
+        private final long size;
+        private final long mtime;
+        private final String blobId;
+
+        Entry(long size, long mtime, String blobId) {
+            this.size = size;
+            this.mtime = mtime;
+            this.blobId = blobId;
+        }
+    }
+}
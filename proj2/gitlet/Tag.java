@@ -0,0 +1,76 @@
+package gitlet;
+
+import java.io.File;
+import java.io.Serializable;
+import java.time.Instant;
+import java.time.ZoneId;
+
+import static gitlet.Repository.OBJECTS_DIR;
+
+/**
+ * An annotated tag: a named, dated message about a commit, stored with
+ * the other objects. Its ref under tags/ points at the tag, while a
+ * lightweight tag's ref points at the commit itself.
+ *
+ * @author Jiayi Mao
+ */
+public class Tag implements Serializable {
+    private String id;
+    private String target;      // the commit tagged
+    private String name;
+    private String message;
+    private long time;          // epoch millis
+    private int zoneOffset;     // seconds east of UTC
+
+    public Tag(String target, String name, String message) {
+        this.target = target;
+        this.name = name;
+        this.message = message;
+        this.time = System.currentTimeMillis();
+        this.zoneOffset = ZoneId.systemDefault().getRules()
+                .getOffset(Instant.ofEpochMilli(time)).getTotalSeconds();
+        this.id = computeId();
+    }
+
+    /** Returns the tag stored under ID, or null if that object is not a tag. */
+    public static Tag load(String id) {
+        File file = Utils.join(OBJECTS_DIR, id);
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            return Utils.readObject(file, Tag.class);
+        } catch (IllegalArgumentException excp) {
+            return null;  // a commit or a blob
+        }
+    }
+
+    /** Returns the id this tag's contents hash to, which is its id unless it was corrupted. */
+    String computeId() {
+        return Utils.sha1("tag", target, name, message, getTimeStamp());
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public String getTimeStamp() {
+        return Commit.formatTime(time, zoneOffset);
+    }
+
+    public void save() {
+        Utils.writeObject(Utils.join(OBJECTS_DIR, id), this);
+    }
+}
@@ -3,19 +3,19 @@ package gitlet;
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
-import java.util.Formatter;
 import java.util.List;
 
 import static gitlet.Repository.GITLET_DIR;
@@ -43,25 +43,7 @@ class Utils {
      * be any mixture of byte arrays and Strings.
      */
     static String sha1(Object... vals) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-1");
-            for (Object val : vals) {
-                if (val instanceof byte[]) {
-                    md.update((byte[]) val);
-                } else if (val instanceof String) {
-                    md.update(((String) val).getBytes(StandardCharsets.UTF_8));
-                } else {
-                    throw new IllegalArgumentException("improper type to sha1");
-                }
-            }
-            Formatter result = new Formatter();
-            for (byte b : md.digest()) {
-                result.format("%02x", b);
-            }
-            return result.toString();
-        } catch (NoSuchAlgorithmException excp) {
-            throw new IllegalArgumentException("System does not support SHA-1");
-        }
+        return Hashing.sha1(vals);
     }
 
     /**
@@ -78,10 +60,14 @@ class Utils {
      * Deletes FILE if it exists and is not a directory.  Returns true
      * if FILE was deleted, and false otherwise.  Refuses to delete FILE
      * and throws IllegalArgumentException unless the directory designated by
-     * FILE also contains a directory named .gitlet.
+     * FILE, or one of its ancestors, also contains a directory named .gitlet.
      */
     static boolean restrictedDelete(File file) {
-        if (!(new File(file.getParentFile(), ".gitlet")).isDirectory()) {
+        File dir = file.getAbsoluteFile().getParentFile();
+        while (dir != null && !(new File(dir, ".gitlet")).isDirectory()) {
+            dir = dir.getParentFile();
+        }
+        if (dir == null) {
             throw new IllegalArgumentException("not .gitlet working directory");
         }
         if (!file.isDirectory()) {
@@ -128,6 +114,102 @@ class Utils {
         return new String(readContents(file), StandardCharsets.UTF_8);
     }
 
+    /* MEMORY-MAPPED READING */
+
+    /**
+     * Files at least this large are memory-mapped by readContentsBuffer.
+     * Below it, setting up a mapping costs more than copying the bytes.
+     */
+    static final int MAPPING_THRESHOLD = 64 * 1024;
+
+    /**
+     * Return the entire contents of FILE as a read-only ByteBuffer. Large
+     * files are memory-mapped, so their contents are never copied onto
+     * the heap. FILE must be a normal file. Throws IllegalArgumentException
+     * in case of problems.
+     */
+    static ByteBuffer readContentsBuffer(File file) {
+        if (!file.isFile()) {
+            throw new IllegalArgumentException("must be a normal file");
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size >= MAPPING_THRESHOLD) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                continue;
+            }
+            buffer.flip();
+            return buffer.asReadOnlyBuffer();
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
+    /**
+     * Copy LENGTH bytes of SOURCE, starting at POSITION, to TARGET, creating
+     * or overwriting it as needed. The bytes go from file to file through
+     * the kernel without passing through the heap. Throws
+     * IllegalArgumentException in case of problems.
+     */
+    static void transferContents(File source, long position, long length,
+                                 File target) {
+        if (target.isDirectory()) {
+            throw new IllegalArgumentException("cannot overwrite directory");
+        }
+        try (FileChannel in = FileChannel.open(source.toPath(),
+                StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target.toPath(),
+                     StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            long done = 0;
+            while (done < length) {
+                long n = in.transferTo(position + done, length - done, out);
+                if (n <= 0) {
+                    throw new IOException("unexpected end of " + source);
+                }
+                done += n;
+            }
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
+    /** An InputStream over the remaining bytes of a ByteBuffer. */
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer.duplicate();
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(bytes, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+
     /**
      * Write the result of concatenating the bytes in CONTENTS to FILE,
      * creating or overwriting it as needed.  Each object in CONTENTS may be
@@ -161,9 +243,19 @@ class Utils {
      */
     static <T extends Serializable> T readObject(File file,
                                                  Class<T> expectedClass) {
+        return deserialize(readContentsBuffer(file), expectedClass);
+    }
+
+    /**
+     * Return an object of type T read from the remaining bytes of BUFFER,
+     * casting it to EXPECTEDCLASS. Throws IllegalArgumentException in case
+     * of problems.
+     */
+    static <T extends Serializable> T deserialize(ByteBuffer buffer,
+                                                  Class<T> expectedClass) {
         try {
             ObjectInputStream in =
-                    new ObjectInputStream(new FileInputStream(file));
+                    new ObjectInputStream(new ByteBufferInputStream(buffer));
             T result = expectedClass.cast(in.readObject());
             in.close();
             return result;
@@ -0,0 +1,144 @@
+package gitlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Walks the working directory in parallel, one fork-join task per
+ * directory, skipping .gitlet and everything .gitletignore matches.
+ * <p>
+ * Tracked files get the id of their current content, which is taken from
+ * the StatCache when size and modification time are unchanged and hashed
+ * otherwise. Other files are only listed as untracked and never read.
+ * Paths are relative to the working directory and use / as separator.
+ *
+ * @author Jiayi Mao
+ */
+class WorkingTreeScanner {
+    private final File root;
+    private final Set<String> tracked;
+    private final IgnoreRules ignoreRules;
+    private final StatCache statCache;
+
+    private final Map<String, String> workingIds = new ConcurrentHashMap<>();
+    private final Set<String> untracked = ConcurrentHashMap.newKeySet();
+    private final Map<String, StatCache.Entry> freshStats = new ConcurrentHashMap<>();
+
+    /**
+     * A scanner of ROOT that hashes the files in TRACKED, ignoring what
+     * IGNORERULES match and reusing ids recorded in STATCACHE.
+     */
+    WorkingTreeScanner(File root, Set<String> tracked,
+                       IgnoreRules ignoreRules, StatCache statCache) {
+        this.root = root;
+        this.tracked = tracked;
+        this.ignoreRules = ignoreRules;
+        this.statCache = statCache;
+    }
+
+    void scan() {
+        ForkJoinPool.commonPool().invoke(new DirectoryTask(root.toPath(), ""));
+        // tracked files inside ignored directories are still tracked
+        for (String path : tracked) {
+            if (!workingIds.containsKey(path)) {
+                Path file = root.toPath().resolve(path);
+                BasicFileAttributes attrs = readAttributes(file);
+                if (attrs != null && attrs.isRegularFile()) {
+                    workingIds.put(path, idOf(file, path, attrs));
+                }
+            }
+        }
+    }
+
+    /** Returns the blob ids of the tracked files present in the working directory. */
+    TreeMap<String, String> getWorkingIds() {
+        return new TreeMap<>(workingIds);
+    }
+
+    /** Returns the paths of present, non-ignored files that are not tracked. */
+    TreeSet<String> getUntrackedFiles() {
+        return new TreeSet<>(untracked);
+    }
+
+    /** Records what this scan hashed or confirmed in the stat cache. */
+    void updateStatCache() {
+        statCache.replaceWith(freshStats);
+    }
+
+    private String idOf(Path file, String path, BasicFileAttributes attrs) {
+        long size = attrs.size();
+        long mtime = attrs.lastModifiedTime().toMillis();
+        String id = statCache.lookup(path, size, mtime);
+        if (id == null) {
+            id = Blob.idOf(path, file.toFile());
+        }
+        freshStats.put(path, new StatCache.Entry(size, mtime, id));
+        return id;
+    }
+
+    private static BasicFileAttributes readAttributes(Path file) {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class,
+                    LinkOption.NOFOLLOW_LINKS);
+        } catch (IOException excp) {
+            return null;  // vanished while we were looking
+        }
+    }
+
+    private class DirectoryTask extends RecursiveAction {
+        private final Path dir;
+        private final String prefix;
+
+        DirectoryTask(Path dir, String prefix) {
+            this.dir = dir;
+            this.prefix = prefix;
+        }
+
+        @Override
+        protected void compute() {
+            List<DirectoryTask> subtrees = new ArrayList<>();
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(dir)) {
+                for (Path child : children) {
+                    String name = child.getFileName().toString();
+                    if (prefix.isEmpty() && name.equals(".gitlet")) {
+                        continue;
+                    }
+                    BasicFileAttributes attrs = readAttributes(child);
+                    if (attrs == null) {
+                        continue;
+                    }
+                    String path = prefix.isEmpty() ? name : prefix + "/" + name;
+                    if (ignoreRules.isIgnored(path, name, attrs.isDirectory())) {
+                        continue;
+                    }
+                    if (attrs.isDirectory()) {
+                        subtrees.add(new DirectoryTask(child, path));
+                    } else if (attrs.isRegularFile()) {
+                        if (tracked.contains(path)) {
+                            workingIds.put(path, idOf(child, path, attrs));
+                        } else {
+                            untracked.add(path);
+                        }
+                    }
+                }
+            } catch (IOException excp) {
+                throw new IllegalArgumentException(excp.getMessage());
+            }
+            invokeAll(subtrees);
+        }
+    }
+}